@@ -0,0 +1,92 @@
+package com.othello.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.othello.ai.Search;
+import com.othello.ai.TranspositionTable;
+import com.othello.game.Board;
+import com.othello.game.Team;
+
+/**
+ * Measures the AI choosing and making a move. The search is limited by depth instead of time so that every run does the
+ * same work, and it runs on one thread on the benchmark thread itself. Each operation moves once on every position of the
+ * corpus and takes the moves back.
+ * <p>
+ * Every search has to start from empty tables, or the same positions would be found already searched from the last
+ * operation. Emptying them takes about as long as the endgame searches themselves, so it can't be timed with them and
+ * per-call setup would add the harness's own overhead to every call. Each iteration is instead a single timed operation
+ * with the tables emptied before it.
+ *
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 50)
+@Measurement(iterations = 200)
+@Fork(1)
+public class AIBenchmark
+{
+	@Param({ "MIDGAME", "ENDGAME" })
+	public Positions positions;
+
+	@Param({ "6" })
+	public int depth;
+
+	private Search search;
+
+	private Board[] boards;
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		search = new Search();
+		search.setTranspositionTable(new TranspositionTable(16));
+		search.setTimeLimit(Long.MAX_VALUE);
+		search.setMaxDepth(depth);
+		search.setEndgameEmpties(12);
+		boards = positions.createBoards();
+
+		for (Board board : boards)
+		{
+			//Without this the AI would keep playing against itself until the game is over.
+			board.setComputer(Team.BLACK, false);
+			board.setComputer(Team.WHITE, false);
+			board.getRules().setSearch(search);
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void clearTables()
+	{
+		search.getTranspositionTable().clear();
+		search.getEndgameSolver().getTranspositionTable().clear();
+	}
+
+	/**
+	 * The GC profiler counts what the moves allocate as well as the points of the valid moves found again by
+	 * {@link Board#undo()}.
+	 */
+	@Benchmark
+	public void runAI()
+	{
+		for (Board board : boards)
+		{
+			board.getRules().runAI();
+			board.undo();
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.othello.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.othello.game.Board;
+
+/**
+ * Measures the bookkeeping the window does every frame. Each operation goes over every position of the corpus once.
+ *
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark
+{
+	@Param({ "MIDGAME", "ENDGAME" })
+	public Positions positions;
+
+	private Board[] boards;
+
+	@Setup
+	public void setUp()
+	{
+		boards = positions.createBoards();
+	}
+
+	@Benchmark
+	public void updateCount(Blackhole blackhole)
+	{
+		for (Board board : boards)
+		{
+			blackhole.consume(board.updateCount());
+		}
+	}
+
+	@Benchmark
+	public void getPoints(Blackhole blackhole)
+	{
+		for (Board board : boards)
+		{
+			blackhole.consume(board.getPoints());
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.othello.benchmark;
+
+import com.othello.game.Board;
+import com.othello.game.BoardFactory;
+
+/**
+ * The fixed positions every benchmark runs over, written as the moves played from the standard board. They were found by
+ * playing random moves with a fixed seed, and the side to move has a move in each of them.
+ *
+ * @version 1.0.0
+ */
+public enum Positions
+{
+	/**
+	 * Positions 20 to 32 moves into the game.
+	 */
+	MIDGAME("f5f4f3f6d3c3b3f2g7f7g4c5e6g5h6g3b5g6f1c4",
+			"e6d6c4d3c7b3a2f6d2c3c2c6c5e3f4b6f7c1b2g5",
+			"e6d6c6f6d3c3f4d2b2b3g6a1c2d1b1g7g8h6c4b4a2d7a4f3",
+			"e6f6g6f4c3c6c5e7f5c4g3g7d7g4f3d6h3d8b6g2e3e2g1a7",
+			"c4e3f4c5d6f5e2c3c6e6d3c7b5c2b7f1b3b4a4g3g6g4d1d2e7a2h2f3",
+			"f5d6c4g5e6f6g6f4e7b4b3h6d7e8g4d3g7h5f8h3g3f3f2f7e3b2c2c8",
+			"d3c5e6f5c6e7b6c2f7d6g4g8f3h3g5c4c7a7b5e2f8e8e3d7g2b4a6f2a8h5d1f1",
+			"c4c3d3c5b4a3b3e3c2b5f3f2a4c1f1b2a2g2b1e2e6d6h3e7f8d7f5f7g1g5e8h2"),
+
+	/**
+	 * Positions with 6 to 16 empty squares left.
+	 */
+	ENDGAME("d3c5b6f3d6c6c7b5g2b7f4c8b8e6a8g3b4a3h2e3f6h3c4g1b3a7a5d2d8h1a6d7f5f7g8a4g4b2g7h4f2e1f1g6",
+			"c4c3d3e3d2b4a5c1b5b3b2c6e6a6c5e7a7a1f2f4d7a2b1a4g4g3e2d6g5h6b6f3f5h4h2g6g7f6f7c2e1a8h5f8c7h7",
+			"f5d6c5f6e6b4c3e3a5g5c6f4g4d7b5a4h5a3c8d8a2h6e8b6b7g6e7b3h7d2c4h3h4f7a7b2c2c7b8f3g8d3f8a1h2b1g3g2",
+			"c4c3d3e3f4b5e2g3g5f3g2g1b2b3f6c5h1e1c2g4h3e6b6g6d1a1e7f7h5c6b4f5a4d8d7h4f1b7a7c7a3h2d6h6a8b1b8c8d2a2",
+			"f5f6d3c3c4e3c2c5c6d6e7b7a8b2f3f4g5e2f2g4h3f1d1b1g1g2d2h6e1g6g7f8b4c7a2e6f7h4g8a7h1a4e8h2b5a1b3h8a6c1",
+			"d3e3f3e2d1c6f4g2g3d2c3f2f6h4d6d7e1f5e6f1h2b3b6c1g6f7c5h6b2c4a3a7g7g1e8h7a6d8c8b4h5f8e7h1b5b8a8a4h3g5g8g4",
+			"d3c3f5e3c2f6f3c5d6c1f4e7b3f2c7d2b5c6g5a3g3c8f1g4h5h4d7h3b7a7b1b4f7a5d1g7e8d8e6e1f8g1h2g8b2g2h1a1b6a4c4a2g6h7",
+			"d3e3f5e6f4g3e2c5d7f7b6f6g5c4b5f3h2g4d6d1g2c8g6b3c3d2f8c7f1f2h3b4g1a6c1c6e1h4d8e8h5g7b8g8a2b7a3a5h6b2a8a7b1a4");
+
+	private final String[] moves;
+
+	Positions(String... moves)
+	{
+		this.moves = moves;
+	}
+
+	/**
+	 * @return A new board for each position, in the same order every time.
+	 */
+	public Board[] createBoards()
+	{
+		Board[] boards = new Board[moves.length];
+
+		for (int i = 0; i < moves.length; i++)
+		{
+			boards[i] = BoardFactory.createBoard(moves[i]);
+		}
+
+		return boards;
+	}
+}
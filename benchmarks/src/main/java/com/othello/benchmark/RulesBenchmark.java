@@ -0,0 +1,100 @@
+package com.othello.benchmark;
+
+import java.awt.Point;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.othello.game.Board;
+import com.othello.game.BoardFactory;
+import com.othello.game.Rules;
+
+/**
+ * Measures finding and making moves. Each operation goes over every position of the corpus once.
+ *
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RulesBenchmark
+{
+	@Param({ "MIDGAME", "ENDGAME" })
+	public Positions positions;
+
+	private Board[] boards;
+
+	private Point[] points;
+
+	/**
+	 * The move made on each board by {@link #move()}.
+	 */
+	private Point[] moves;
+
+	@Setup
+	public void setUp()
+	{
+		boards = positions.createBoards();
+		points = BoardFactory.createStandardBoard().getPoints().toArray(new Point[0]);
+		moves = new Point[boards.length];
+
+		for (int i = 0; i < boards.length; i++)
+		{
+			boards[i].getRules().updateValidMoves();
+			moves[i] = boards[i].getRules().getValidMoves().get(0);
+		}
+	}
+
+	@Benchmark
+	public void canPlace(Blackhole blackhole)
+	{
+		for (Board board : boards)
+		{
+			Rules rules = board.getRules();
+
+			for (Point point : points)
+			{
+				blackhole.consume(rules.canPlace(board.getTurn(), point));
+			}
+		}
+	}
+
+	@Benchmark
+	public void updateValidMoves(Blackhole blackhole)
+	{
+		for (Board board : boards)
+		{
+			board.getRules().updateValidMoves();
+			blackhole.consume(board.getRules().getValidMoves());
+		}
+	}
+
+	/**
+	 * Making a move changes the board, so each one is taken back straight away. The undo is timed with the move rather than
+	 * run as per-call setup, which would add the harness's own overhead to every call. It finds the valid moves again, so
+	 * this measures a move, an undo and {@link #updateValidMoves(Blackhole)}.
+	 */
+	@Benchmark
+	public void move()
+	{
+		for (int i = 0; i < boards.length; i++)
+		{
+			boards[i].getRules().move(boards[i].getTurn(), moves[i]);
+			boards[i].undo();
+		}
+	}
+}
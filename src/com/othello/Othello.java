@@ -6,11 +6,19 @@ import java.awt.GraphicsEnvironment;
 import java.awt.Toolkit;
 import java.io.IOException;
 import java.net.URLClassLoader;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.swing.JFrame;
 import javax.swing.SwingUtilities;
 
+import com.othello.ai.OpeningBook;
+import com.othello.ai.PatternEvaluation;
+import com.othello.ai.ProbCut;
+import com.othello.ai.Search;
 import com.othello.animation.AnimationManager;
+import com.othello.game.BitBoard;
 import com.othello.game.Board;
 import com.othello.game.BoardFactory;
 import com.othello.gui.JBoard;
@@ -33,6 +41,21 @@ public class Othello extends JFrame
      */
 	private final AnimationManager animationManager = new AnimationManager();
 
+	/**
+	 * The search used by the AI. It is kept between games so that its threads and transposition table are only created once.
+	 */
+	private final Search search = new Search();
+
+	/**
+	 * The thread the AI thinks on.
+	 */
+	private final ExecutorService aiExecutor = Executors.newSingleThreadExecutor(runnable ->
+	{
+		Thread thread = new Thread(runnable, "AI");
+		thread.setDaemon(true);
+		return thread;
+	});
+
     /**
      * Used to remove the old JBoard from the main JFrame and allows a new one to be created.
      */
@@ -57,7 +80,45 @@ public class Othello extends JFrame
 		}
 		
 		instance = this;
+		animationManager.setTargetFps(Integer.getInteger("othello.fps", 60));
 		animationManager.start();
+		search.setThreads(Integer.getInteger("othello.threads", Runtime.getRuntime().availableProcessors()));
+
+		if (System.getProperty("othello.weights") != null)
+		{
+			try
+			{
+				search.setEvaluation(PatternEvaluation.load(Paths.get(System.getProperty("othello.weights"))));
+			}
+			catch (IOException e)
+			{
+				System.out.println("Unable to load evaluation weights " + System.getProperty("othello.weights"));
+			}
+		}
+
+		if (System.getProperty("othello.probcut") != null)
+		{
+			try
+			{
+				search.setProbCut(ProbCut.load(Paths.get(System.getProperty("othello.probcut"))));
+			}
+			catch (IOException e)
+			{
+				System.out.println("Unable to load ProbCut parameters " + System.getProperty("othello.probcut"));
+			}
+		}
+
+		if (System.getProperty("othello.book") != null)
+		{
+			try
+			{
+				search.setOpeningBook(OpeningBook.open(Paths.get(System.getProperty("othello.book"))));
+			}
+			catch (IOException e)
+			{
+				System.out.println("Unable to load opening book " + System.getProperty("othello.book"));
+			}
+		}
 
 		restart();
 
@@ -105,12 +166,19 @@ public class Othello extends JFrame
 		{
 			remove(lastBoard);
 		}
+
+		//The last game may have left the AI pondering a position that no longer matters.
+		search.stopPondering();
 		
-		Board board = BoardFactory.createStandardBoard();
+		Board board = BoardFactory.createBoard(Integer.getInteger("othello.width", BitBoard.SIZE), Integer.getInteger("othello.height", BitBoard.SIZE));
+		board.getRules().setSearch(search);
+		board.getRules().setExecutor(aiExecutor);
+		board.getRules().setPondering(Boolean.parseBoolean(System.getProperty("othello.ponder", "true")));
 		lastBoard = new JBoard(board);
 
 		add(lastBoard);
 		pack();
+		board.start();
 	}
 
     /**
@@ -0,0 +1,62 @@
+package com.othello;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import com.othello.ai.Search;
+import com.othello.game.Board;
+import com.othello.game.BoardFactory;
+import com.othello.game.Team;
+import com.othello.record.GameWriter;
+
+/**
+ * Plays games between two AI teams without creating a window. Nothing listens to the boards so every move finishes its
+ * turn straight away and games run as fast as the rules allow. One search plays every game, its tables are emptied in
+ * between so games don't depend on each other.
+ *
+ * @version 1.0.0
+ */
+public class Simulation
+{
+	/**
+	 * @param args The amount of games to play, 1000 if not given, how many nodes the AI may search per move, 10000 if not
+	 *             given, and a file to write the games to if they should be kept.
+	 * @throws IOException If the games can't be written.
+	 */
+	public static void main(String... args) throws IOException
+	{
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		long nodes = args.length > 1 ? Long.parseLong(args[1]) : 10000;
+		GameWriter record = args.length > 2 ? new GameWriter(Paths.get(args[2])) : null;
+		int white = 0;
+		int black = 0;
+
+		//The exact solve ignores the node limit, so it starts late enough to stay as quick as the searches before it.
+		Search search = new Search();
+		search.setNodeLimit(nodes);
+		search.setEndgameEmpties(12);
+
+		long start = System.nanoTime();
+
+		for (int i = 0; i < games; i++)
+		{
+			search.getTranspositionTable().clear();
+			search.getEndgameSolver().getTranspositionTable().clear();
+
+			Board board = BoardFactory.createStandardBoard();
+			board.setComputer(Team.WHITE, true);
+			board.getRules().setSearch(search);
+			if (record != null) record.record(board, "simulation nodes=" + nodes);
+			board.start();
+
+			if (board.getWinner() == Team.WHITE) white++;
+			else if (board.getWinner() == Team.BLACK) black++;
+		}
+
+		if (record != null) record.close();
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.printf("%d games in %.2fs (%.0f games/s), white %d, black %d%n", games, seconds, games / seconds, white, black);
+	}
+}
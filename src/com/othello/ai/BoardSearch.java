@@ -0,0 +1,219 @@
+package com.othello.ai;
+
+import java.util.Arrays;
+
+import com.othello.game.BitBoard;
+import com.othello.game.Team;
+
+/**
+ * Searches boards that aren't 8x8, which don't fit the single long positions the rest of the search works on. It is a plain
+ * alpha-beta search over the multi-word {@link BitBoard}, deepening one move at a time until the time, node or depth limit
+ * of the {@link Search} it belongs to is reached. The best move of each depth is tried first in the next. There is no
+ * transposition table and no helper threads, so it gets nowhere near as deep as the search on the standard board.
+ * <p>
+ * Positions are scored by corners, mobility and pieces, weighted the same on every size of board.
+ *
+ * @version 1.0.0
+ */
+class BoardSearch
+{
+	/**
+	 * How many nodes are searched between checks of the limits.
+	 */
+	private static final int CHECK_INTERVAL = 1024;
+
+	private static final int CORNER_WEIGHT = 25;
+
+	private static final int MOBILITY_WEIGHT = 5;
+
+	private final Search search;
+
+	/**
+	 * A copy of the board being searched, the board's own bitboard is never moved on.
+	 */
+	private BitBoard bitBoard;
+
+	private int[] corners;
+
+	/**
+	 * Preallocated sets, one for each move from the root so that the search does not allocate.
+	 */
+	private long[][] moves;
+
+	private long[][] flips;
+
+	private long[] replies;
+
+	private long nodes;
+
+	private long nodeBudget;
+
+	private long deadline;
+
+	private boolean stopped;
+
+	BoardSearch(Search search)
+	{
+		this.search = search;
+	}
+
+	/**
+	 * Searches the position until the search's limits are reached. The first iteration always finishes so a move is
+	 * returned even with a tiny budget.
+	 *
+	 * @param position The board to search, which is left as it is.
+	 * @param team The team that is moving.
+	 * @return The best move found.
+	 */
+	SearchResult search(BitBoard position, Team team)
+	{
+		long start = System.nanoTime();
+		int width = position.getWidth();
+		int height = position.getHeight();
+
+		bitBoard = new BitBoard(width, height);
+		corners = new int[] { 0, width - 1, (height - 1) * width, height * width - 1 };
+		nodes = 0;
+		nodeBudget = search.getNodeLimit();
+		deadline = search.getTimeLimit() == Long.MAX_VALUE ? Long.MAX_VALUE : start + search.getTimeLimit() * 1000000;
+		stopped = false;
+
+		for (int square = 0; square < width * height; square++)
+		{
+			Team piece = position.getTeam(square);
+
+			if (piece != null) bitBoard.setPiece(piece, square);
+		}
+
+		long[] rootMoves = bitBoard.createSet();
+		bitBoard.getMoves(team, rootMoves);
+
+		if (BitBoard.isEmpty(rootMoves)) return new SearchResult(-1, 0, 0, 0, System.nanoTime() - start);
+
+		int[] order = new int[BitBoard.count(rootMoves)];
+
+		for (int i = 0, square = BitBoard.next(rootMoves, 0); square != -1; i++, square = BitBoard.next(rootMoves, square + 1))
+		{
+			order[i] = square;
+		}
+
+		int empties = width * height - bitBoard.getCount(Team.BLACK) - bitBoard.getCount(Team.WHITE);
+		int maxDepth = Math.max(1, Math.min(search.getMaxDepth(), empties));
+
+		//A pass keeps the depth but takes a move, and there can't be two in a row.
+		moves = new long[maxDepth * 2 + 2][bitBoard.getWords()];
+		flips = new long[maxDepth * 2 + 2][bitBoard.getWords()];
+		replies = bitBoard.createSet();
+
+		Team other = team == Team.BLACK ? Team.WHITE : Team.BLACK;
+		long[] timeToDepth = new long[maxDepth + 1];
+		int bestMove = order[0];
+		int bestScore = 0;
+		int completed = 0;
+
+		for (int depth = 1; depth <= maxDepth; depth++)
+		{
+			boolean stoppable = depth > 1;
+			int alpha = -Integer.MAX_VALUE;
+			int best = order[0];
+
+			for (int square : order)
+			{
+				bitBoard.getFlips(team, square, flips[0]);
+				bitBoard.move(team, square, flips[0]);
+				int score = -negamax(other, depth - 1, 1, -Integer.MAX_VALUE, -alpha);
+				bitBoard.undo(team, square, flips[0]);
+
+				if (stoppable && stopped) break;
+
+				if (score > alpha)
+				{
+					alpha = score;
+					best = square;
+				}
+			}
+
+			if (stoppable && stopped) break;
+
+			bestMove = best;
+			bestScore = alpha;
+			completed = depth;
+			timeToDepth[depth] = System.nanoTime() - start;
+
+			int index = 0;
+
+			while (order[index] != best) index++;
+
+			System.arraycopy(order, 0, order, 1, index);
+			order[0] = best;
+		}
+
+		return new SearchResult(bestMove, bestScore, completed, nodes, System.nanoTime() - start, Arrays.copyOf(timeToDepth, completed + 1));
+	}
+
+	/**
+	 * @return The score for the team moving, from its side.
+	 */
+	private int negamax(Team team, int depth, int ply, int alpha, int beta)
+	{
+		if ((++nodes & (CHECK_INTERVAL - 1)) == 0 && (nodes >= nodeBudget || System.nanoTime() > deadline))
+		{
+			stopped = true;
+		}
+
+		//Leaves are cheap, so the first iteration still finishes when stopped.
+		if (depth > 0 && stopped) return 0;
+
+		Team other = team == Team.BLACK ? Team.WHITE : Team.BLACK;
+		long[] set = moves[ply];
+		bitBoard.getMoves(team, set);
+
+		if (BitBoard.isEmpty(set))
+		{
+			if (!bitBoard.hasMoves(other)) return Search.toScore(bitBoard.getCount(team) - bitBoard.getCount(other));
+
+			return -negamax(other, depth, ply + 1, -beta, -alpha);
+		}
+
+		if (depth == 0) return evaluate(team, other, set);
+
+		for (int square = BitBoard.next(set, 0); square != -1; square = BitBoard.next(set, square + 1))
+		{
+			bitBoard.getFlips(team, square, flips[ply]);
+			bitBoard.move(team, square, flips[ply]);
+			int score = -negamax(other, depth - 1, ply + 1, -beta, -alpha);
+			bitBoard.undo(team, square, flips[ply]);
+
+			if (score > alpha)
+			{
+				alpha = score;
+
+				if (alpha >= beta) break;
+			}
+		}
+
+		return alpha;
+	}
+
+	/**
+	 * @param teamMoves The moves of the team that is moving.
+	 * @return The score for the team moving.
+	 */
+	private int evaluate(Team team, Team other, long[] teamMoves)
+	{
+		bitBoard.getMoves(other, replies);
+
+		int score = MOBILITY_WEIGHT * (BitBoard.count(teamMoves) - BitBoard.count(replies));
+		score += bitBoard.getCount(team) - bitBoard.getCount(other);
+
+		for (int corner : corners)
+		{
+			Team piece = bitBoard.getTeam(corner);
+
+			if (piece == team) score += CORNER_WEIGHT;
+			else if (piece == other) score -= CORNER_WEIGHT;
+		}
+
+		return score;
+	}
+}
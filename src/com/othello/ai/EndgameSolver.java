@@ -0,0 +1,497 @@
+package com.othello.ai;
+
+import com.othello.game.BitBoard;
+import com.othello.game.Team;
+import com.othello.game.Zobrist;
+
+/**
+ * Solves positions near the end of the game perfectly by searching every move until the board is full. Scores are the
+ * final difference in pieces, with any empty slots given to the winner.
+ * <p>
+ * How moves are ordered depends on how many slots are empty. With many empties the move that leaves the opponent the fewest
+ * replies is tried first (fastest first), which finds cutoffs quickly. With a few empties moves in regions with an odd
+ * amount of empties are tried first (parity), because the team that moves last in a region usually keeps it. The last four
+ * empties have their own methods that try each empty slot directly instead of generating moves.
+ *
+ * @version 1.0.0
+ */
+public class EndgameSolver
+{
+	public enum Mode
+	{
+		/**
+		 * Find the exact final score.
+		 */
+		EXACT,
+
+		/**
+		 * Only find whether the game is won, lost or drawn, which is a lot faster.
+		 */
+		WIN_LOSS_DRAW
+	}
+
+	/**
+	 * Positions with at least this many empties are stored in the transposition table.
+	 */
+	private static final int TABLE_EMPTIES = 10;
+
+	/**
+	 * Positions with more empties than this order their moves by the opponent's mobility, the rest use parity.
+	 */
+	private static final int FASTEST_FIRST_EMPTIES = 6;
+
+	/**
+	 * The four corner regions of the board that parity is counted over.
+	 */
+	private static final long[] QUADRANTS = { 0x000000000F0F0F0FL, 0x00000000F0F0F0F0L, 0x0F0F0F0F00000000L, 0xF0F0F0F000000000L };
+
+	private static final long CORNERS = 0x8100000000000081L;
+
+	private TranspositionTable table = new TranspositionTable(16);
+
+	/**
+	 * Preallocated move lists, one for each amount of empties so that the search does not allocate.
+	 */
+	private final int[][] moveLists = new int[65][64];
+
+	private final int[][] moveScores = new int[65][64];
+
+	private long nodes;
+
+	public void setTranspositionTable(TranspositionTable table)
+	{
+		this.table = table;
+	}
+
+	public TranspositionTable getTranspositionTable()
+	{
+		return table;
+	}
+
+	public long getNodes()
+	{
+		return nodes;
+	}
+
+	/**
+	 * Solves a position and finds the best move.
+	 *
+	 * @param player The pieces of the team that is moving.
+	 * @param opponent The pieces of the other team.
+	 * @param color The ordinal of the team that is moving.
+	 * @param mode Whether to find the exact score or only the result.
+	 * @return The best move and the final difference in pieces with perfect play, or -1, 0 or 1 when only the result was
+	 *         asked for.
+	 */
+	public SearchResult solve(long player, long opponent, int color, Mode mode)
+	{
+		long start = System.nanoTime();
+		long moves = BitBoard.getMoves(player, opponent);
+		int empties = Long.bitCount(~(player | opponent));
+		int limit = mode == Mode.EXACT ? 64 : 1;
+
+		nodes = 0;
+		table.newSearch();
+
+		if (moves == 0)
+		{
+			return new SearchResult(-1, 0, empties, 0, System.nanoTime() - start);
+		}
+
+		long hash = Zobrist.hash(color == 0 ? player : opponent, color == 0 ? opponent : player, Team.values()[color]);
+		int alpha = -limit;
+		int bestMove = Long.numberOfTrailingZeros(moves);
+		int count = orderMoves(player, opponent, moves, empties, TranspositionTable.NO_MOVE);
+		int[] list = moveLists[empties];
+
+		for (int i = 0; i < count; i++)
+		{
+			int square = list[i];
+			long flips = BitBoard.getFlips(player, opponent, square);
+			long nextPlayer = player | flips | (1L << square);
+			long nextOpponent = opponent & ~flips;
+			long nextHash = hash ^ Zobrist.getMoveKey(color, square, flips);
+			int score;
+
+			if (i == 0)
+			{
+				score = -solve(nextOpponent, nextPlayer, nextHash, color ^ 1, -limit, -alpha, empties - 1, false);
+			}
+			else
+			{
+				score = -solve(nextOpponent, nextPlayer, nextHash, color ^ 1, -alpha - 1, -alpha, empties - 1, false);
+
+				if (score > alpha && score < limit)
+				{
+					score = -solve(nextOpponent, nextPlayer, nextHash, color ^ 1, -limit, -score, empties - 1, false);
+				}
+			}
+
+			if (score > alpha)
+			{
+				alpha = score;
+				bestMove = square;
+
+				if (alpha >= limit) break;
+			}
+		}
+
+		//Scores outside of the window are only bounds, but their sign is still the result of the game.
+		int score = mode == Mode.EXACT ? alpha : Integer.signum(alpha);
+
+		return new SearchResult(bestMove, score, empties, nodes, System.nanoTime() - start);
+	}
+
+	/**
+	 * The general solver used while more than four slots are empty.
+	 */
+	private int solve(long player, long opponent, long hash, int color, int alpha, int beta, int empties, boolean passed)
+	{
+		if (empties <= 4)
+		{
+			return solveSmall(player, opponent, alpha, beta, empties);
+		}
+
+		nodes++;
+
+		long moves = BitBoard.getMoves(player, opponent);
+
+		if (moves == 0)
+		{
+			if (passed) return getFinalScore(player, opponent);
+
+			return -solve(opponent, player, hash ^ Zobrist.WHITE_TO_MOVE, color ^ 1, -beta, -alpha, empties, true);
+		}
+
+		boolean useTable = empties >= TABLE_EMPTIES;
+		int hashMove = TranspositionTable.NO_MOVE;
+
+		if (useTable)
+		{
+			long entry = table.probe(hash);
+
+			if (entry != 0)
+			{
+				hashMove = TranspositionTable.getMove(entry);
+
+				int score = TranspositionTable.getScore(entry);
+				int bound = TranspositionTable.getBound(entry);
+
+				if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score >= beta) || (bound == TranspositionTable.UPPER && score <= alpha))
+				{
+					return score;
+				}
+			}
+		}
+
+		int originalAlpha = alpha;
+		int best = -65;
+		int bestMove = TranspositionTable.NO_MOVE;
+		int count = orderMoves(player, opponent, moves, empties, hashMove);
+		int[] list = moveLists[empties];
+
+		for (int i = 0; i < count; i++)
+		{
+			int square = list[i];
+			long flips = BitBoard.getFlips(player, opponent, square);
+			long nextPlayer = player | flips | (1L << square);
+			long nextOpponent = opponent & ~flips;
+			long nextHash = useTable ? hash ^ Zobrist.getMoveKey(color, square, flips) : 0;
+			int score;
+
+			if (i == 0)
+			{
+				score = -solve(nextOpponent, nextPlayer, nextHash, color ^ 1, -beta, -alpha, empties - 1, false);
+			}
+			else
+			{
+				score = -solve(nextOpponent, nextPlayer, nextHash, color ^ 1, -alpha - 1, -alpha, empties - 1, false);
+
+				if (score > alpha && score < beta)
+				{
+					score = -solve(nextOpponent, nextPlayer, nextHash, color ^ 1, -beta, -score, empties - 1, false);
+				}
+			}
+
+			if (score > best)
+			{
+				best = score;
+				bestMove = square;
+
+				if (score > alpha)
+				{
+					alpha = score;
+
+					if (alpha >= beta) break;
+				}
+			}
+		}
+
+		if (useTable)
+		{
+			int bound = best >= beta ? TranspositionTable.LOWER : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+			table.store(hash, empties, best, bound, bestMove);
+		}
+
+		return best;
+	}
+
+	/**
+	 * Fills the move list for the amount of empties in the order the moves should be searched.
+	 *
+	 * @return The amount of moves in the list.
+	 */
+	private int orderMoves(long player, long opponent, long moves, int empties, int hashMove)
+	{
+		int[] list = moveLists[empties];
+		int[] scores = moveScores[empties];
+		int count = 0;
+
+		if (empties > FASTEST_FIRST_EMPTIES)
+		{
+			while (moves != 0)
+			{
+				int square = Long.numberOfTrailingZeros(moves);
+				moves &= moves - 1;
+
+				long flips = BitBoard.getFlips(player, opponent, square);
+				long nextPlayer = player | flips | (1L << square);
+				int score = Long.bitCount(BitBoard.getMoves(opponent & ~flips, nextPlayer)) * 16 - ((CORNERS >>> square & 1) != 0 ? 8 : 0);
+
+				if (square == hashMove) score = Integer.MIN_VALUE;
+
+				//Insertion sort, there are never many moves.
+				int i = count++;
+				while (i > 0 && scores[i - 1] > score)
+				{
+					list[i] = list[i - 1];
+					scores[i] = scores[i - 1];
+					i--;
+				}
+				list[i] = square;
+				scores[i] = score;
+			}
+		}
+		else
+		{
+			long odd = getOddRegions(~(player | opponent));
+
+			for (long ordered = moves & odd; ordered != 0; ordered &= ordered - 1)
+			{
+				list[count++] = Long.numberOfTrailingZeros(ordered);
+			}
+			for (long ordered = moves & ~odd; ordered != 0; ordered &= ordered - 1)
+			{
+				list[count++] = Long.numberOfTrailingZeros(ordered);
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * @param empty The empty slots.
+	 * @return Every slot in a region with an odd amount of empties.
+	 */
+	private static long getOddRegions(long empty)
+	{
+		long odd = 0;
+
+		for (long quadrant : QUADRANTS)
+		{
+			odd |= quadrant & -(Long.bitCount(empty & quadrant) & 1);
+		}
+
+		return odd;
+	}
+
+	/**
+	 * Picks up the last few empties, puts those in odd regions first and hands them to the matching method. A full board is
+	 * only reached here from a root with one empty slot, the other methods fill their last slot themselves.
+	 */
+	private int solveSmall(long player, long opponent, int alpha, int beta, int empties)
+	{
+		if (empties == 0) return getFinalScore(player, opponent);
+
+		long empty = ~(player | opponent);
+		long odd = getOddRegions(empty);
+		long first = empty & odd;
+		long second = empty & ~odd;
+
+		int s1 = next(first, second);
+		if (empties == 1) return solve1(player, opponent, s1);
+		first = clear(first, s1);
+		second = clear(second, s1);
+
+		int s2 = next(first, second);
+		if (empties == 2) return solve2(player, opponent, alpha, beta, s1, s2, false);
+		first = clear(first, s2);
+		second = clear(second, s2);
+
+		int s3 = next(first, second);
+		if (empties == 3) return solve3(player, opponent, alpha, beta, s1, s2, s3, false);
+		first = clear(first, s3);
+		second = clear(second, s3);
+
+		return solve4(player, opponent, alpha, beta, s1, s2, s3, next(first, second), false);
+	}
+
+	private static int next(long first, long second)
+	{
+		return Long.numberOfTrailingZeros(first != 0 ? first : second);
+	}
+
+	private static long clear(long squares, int square)
+	{
+		return squares & ~(1L << square);
+	}
+
+	private int solve4(long player, long opponent, int alpha, int beta, int s1, int s2, int s3, int s4, boolean passed)
+	{
+		nodes++;
+
+		int best = -65;
+		long flips;
+
+		if ((flips = BitBoard.getFlips(player, opponent, s1)) != 0)
+		{
+			best = -solve3(opponent & ~flips, player | flips | (1L << s1), -beta, -alpha, s2, s3, s4, false);
+			if (best >= beta) return best;
+			if (best > alpha) alpha = best;
+		}
+		if ((flips = BitBoard.getFlips(player, opponent, s2)) != 0)
+		{
+			int score = -solve3(opponent & ~flips, player | flips | (1L << s2), -beta, -alpha, s1, s3, s4, false);
+			if (score >= beta) return score;
+			if (score > best) best = score;
+			if (score > alpha) alpha = score;
+		}
+		if ((flips = BitBoard.getFlips(player, opponent, s3)) != 0)
+		{
+			int score = -solve3(opponent & ~flips, player | flips | (1L << s3), -beta, -alpha, s1, s2, s4, false);
+			if (score >= beta) return score;
+			if (score > best) best = score;
+			if (score > alpha) alpha = score;
+		}
+		if ((flips = BitBoard.getFlips(player, opponent, s4)) != 0)
+		{
+			int score = -solve3(opponent & ~flips, player | flips | (1L << s4), -beta, -alpha, s1, s2, s3, false);
+			if (score > best) best = score;
+		}
+
+		if (best == -65)
+		{
+			if (passed) return getFinalScore(player, opponent);
+
+			return -solve4(opponent, player, -beta, -alpha, s1, s2, s3, s4, true);
+		}
+
+		return best;
+	}
+
+	private int solve3(long player, long opponent, int alpha, int beta, int s1, int s2, int s3, boolean passed)
+	{
+		nodes++;
+
+		int best = -65;
+		long flips;
+
+		if ((flips = BitBoard.getFlips(player, opponent, s1)) != 0)
+		{
+			best = -solve2(opponent & ~flips, player | flips | (1L << s1), -beta, -alpha, s2, s3, false);
+			if (best >= beta) return best;
+			if (best > alpha) alpha = best;
+		}
+		if ((flips = BitBoard.getFlips(player, opponent, s2)) != 0)
+		{
+			int score = -solve2(opponent & ~flips, player | flips | (1L << s2), -beta, -alpha, s1, s3, false);
+			if (score >= beta) return score;
+			if (score > best) best = score;
+			if (score > alpha) alpha = score;
+		}
+		if ((flips = BitBoard.getFlips(player, opponent, s3)) != 0)
+		{
+			int score = -solve2(opponent & ~flips, player | flips | (1L << s3), -beta, -alpha, s1, s2, false);
+			if (score > best) best = score;
+		}
+
+		if (best == -65)
+		{
+			if (passed) return getFinalScore(player, opponent);
+
+			return -solve3(opponent, player, -beta, -alpha, s1, s2, s3, true);
+		}
+
+		return best;
+	}
+
+	private int solve2(long player, long opponent, int alpha, int beta, int s1, int s2, boolean passed)
+	{
+		nodes++;
+
+		int best = -65;
+		long flips;
+
+		if ((flips = BitBoard.getFlips(player, opponent, s1)) != 0)
+		{
+			best = -solve1(opponent & ~flips, player | flips | (1L << s1), s2);
+			if (best >= beta) return best;
+		}
+		if ((flips = BitBoard.getFlips(player, opponent, s2)) != 0)
+		{
+			int score = -solve1(opponent & ~flips, player | flips | (1L << s2), s1);
+			if (score > best) best = score;
+		}
+
+		if (best == -65)
+		{
+			if (passed) return getFinalScore(player, opponent);
+
+			return -solve2(opponent, player, -beta, -alpha, s1, s2, true);
+		}
+
+		return best;
+	}
+
+	/**
+	 * With one empty slot left the score can be counted directly from the flips of whoever can place there.
+	 */
+	private int solve1(long player, long opponent, int square)
+	{
+		nodes++;
+
+		int discs = Long.bitCount(player);
+		long flips = BitBoard.getFlips(player, opponent, square);
+
+		if (flips != 0)
+		{
+			return 2 * (discs + 1 + Long.bitCount(flips)) - 64;
+		}
+
+		flips = BitBoard.getFlips(opponent, player, square);
+
+		if (flips != 0)
+		{
+			return 2 * (discs - Long.bitCount(flips)) - 64;
+		}
+
+		int score = 2 * discs - 63;
+
+		return score > 0 ? score + 1 : score - 1;
+	}
+
+	/**
+	 * @return The difference in pieces of a finished game, with the empty slots going to the winner.
+	 */
+	static int getFinalScore(long player, long opponent)
+	{
+		int players = Long.bitCount(player);
+		int opponents = Long.bitCount(opponent);
+		int difference = players - opponents;
+
+		if (difference > 0) return difference + (64 - players - opponents);
+		if (difference < 0) return difference - (64 - players - opponents);
+
+		return 0;
+	}
+}
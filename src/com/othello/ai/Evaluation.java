@@ -0,0 +1,24 @@
+package com.othello.ai;
+
+/**
+ * Scores a position that is not finished from the point of view of the team that is moving. The search calls this at every
+ * leaf so implementations should not allocate anything, and they are shared between the threads of a search so they should
+ * not keep any state either.
+ *
+ * @version 1.0.0
+ */
+public interface Evaluation
+{
+	/**
+	 * The largest score an evaluation may return. Finished games always score higher than this so that a won game is never
+	 * traded for a good looking position.
+	 */
+	int MAX = 9000;
+
+	/**
+	 * @param player The pieces of the team that is moving.
+	 * @param opponent The pieces of the other team.
+	 * @return The score of the position, between -MAX and MAX, higher is better for the player.
+	 */
+	int evaluate(long player, long opponent);
+}
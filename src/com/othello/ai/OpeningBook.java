@@ -0,0 +1,189 @@
+package com.othello.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.othello.game.Team;
+import com.othello.game.Symmetry;
+
+/**
+ * An opening book read straight from a memory mapped file. The file is an open addressing hash table keyed by position
+ * hash, so a lookup reads one or two entries of the file and the book never has to be loaded onto the heap. Books are
+ * written with {@link OpeningBookWriter}.
+ * <p>
+ * Positions are stored in their canonical form from {@link Symmetry}, with the move turned to match, so one entry covers
+ * every symmetry of a position.
+ * <p>
+ * The file starts with a header of {@value #HEADER_BYTES} bytes: the magic number, the version, the amount of slots
+ * (always a power of two) and the amount of positions. Each slot is {@value #ENTRY_BYTES} bytes: the position hash (0 for an
+ * empty slot), the move, the depth it was searched to, its score and a weight.
+ *
+ * @version 1.0.0
+ */
+public class OpeningBook
+{
+	static final int MAGIC = 0x4F424B31;
+
+	static final int VERSION = 2;
+
+	static final int HEADER_BYTES = 32;
+
+	static final int ENTRY_BYTES = 16;
+
+	/**
+	 * Files are mapped in segments of this many bytes because a single buffer can't be bigger than 2GB. Entries never cross
+	 * a segment because the size is a multiple of the entry size and the header.
+	 */
+	static final int SEGMENT_BYTES = 1 << 30;
+
+	private final MappedByteBuffer[] segments;
+
+	private final long slots;
+
+	private final long positions;
+
+	private OpeningBook(MappedByteBuffer[] segments, long slots, long positions)
+	{
+		this.segments = segments;
+		this.slots = slots;
+		this.positions = positions;
+	}
+
+	/**
+	 * Maps a book file. Nothing is read apart from the header until positions are looked up.
+	 *
+	 * @param path The book file.
+	 * @return The book.
+	 * @throws IOException If the file can't be read or is not a book.
+	 */
+	public static OpeningBook open(Path path) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+		{
+			long size = channel.size();
+			MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_BYTES - 1) / SEGMENT_BYTES)];
+
+			for (int i = 0; i < segments.length; i++)
+			{
+				long position = (long) i * SEGMENT_BYTES;
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_BYTES, size - position));
+			}
+
+			ByteBuffer header = segments.length == 0 ? ByteBuffer.allocate(0) : segments[0];
+
+			if (header.limit() < HEADER_BYTES || header.getInt(0) != MAGIC || header.getInt(4) != VERSION)
+			{
+				throw new IOException(path + " is not an opening book");
+			}
+
+			long slots = header.getLong(8);
+
+			if (Long.bitCount(slots) != 1 || HEADER_BYTES + slots * ENTRY_BYTES != size)
+			{
+				throw new IOException(path + " is damaged");
+			}
+
+			return new OpeningBook(segments, slots, header.getLong(16));
+		}
+	}
+
+	/**
+	 * @return The amount of positions in the book.
+	 */
+	public long getPositions()
+	{
+		return positions;
+	}
+
+	/**
+	 * Looks up the move for a position.
+	 *
+	 * @param player The pieces of the team that is moving.
+	 * @param opponent The pieces of the other team.
+	 * @param team The team that is moving.
+	 * @return The entry of the position, use {@link #getMove(long)} and {@link #getScore(long)} to read it, or 0 if the
+	 *         position is not in the book.
+	 */
+	public long probe(long player, long opponent, Team team)
+	{
+		long black = team == Team.BLACK ? player : opponent;
+		long white = team == Team.BLACK ? opponent : player;
+		int symmetry = Symmetry.getCanonical(black, white);
+		long key = getKey(black, white, team, symmetry);
+
+		for (long slot = key & (slots - 1); ; slot = (slot + 1) & (slots - 1))
+		{
+			long offset = HEADER_BYTES + slot * ENTRY_BYTES;
+			MappedByteBuffer segment = segments[(int) (offset / SEGMENT_BYTES)];
+			int index = (int) (offset % SEGMENT_BYTES);
+			long stored = segment.getLong(index);
+
+			if (stored == 0) return 0;
+			if (stored != key) continue;
+
+			//Turn the move back from the canonical form to this position.
+			long entry = segment.getLong(index + 8);
+			int move = Symmetry.transformSquare(getMove(entry), Symmetry.inverse(symmetry));
+
+			return entry & ~(0xFFL << 56) | (long) move << 56;
+		}
+	}
+
+	/**
+	 * The key of a position in a book. It is the Zobrist hash of the canonical form, with 0 moved out of the way since it
+	 * marks an empty slot.
+	 *
+	 * @param symmetry The symmetry that gives the canonical form of the position.
+	 */
+	static long getKey(long black, long white, Team team, int symmetry)
+	{
+		long key = Symmetry.hash(black, white, team, symmetry);
+
+		return key == 0 ? 1 : key;
+	}
+
+	/**
+	 * @param entry An entry returned by {@link #probe(long, long, Team)}.
+	 * @return The slot to place on.
+	 */
+	public static int getMove(long entry)
+	{
+		return (int) (entry >>> 56) & 0xFF;
+	}
+
+	/**
+	 * @param entry An entry returned by {@link #probe(long, long, Team)}.
+	 * @return How deep the move was searched when the book was made.
+	 */
+	public static int getDepth(long entry)
+	{
+		return (int) (entry >>> 48) & 0xFF;
+	}
+
+	/**
+	 * @param entry An entry returned by {@link #probe(long, long, Team)}.
+	 * @return The score of the move from the point of view of the team moving.
+	 */
+	public static int getScore(long entry)
+	{
+		return (short) (entry >>> 32);
+	}
+
+	/**
+	 * @param entry An entry returned by {@link #probe(long, long, Team)}.
+	 * @return How often the position was seen when the book was made, or any other weight the writer chose.
+	 */
+	public static int getWeight(long entry)
+	{
+		return (int) entry;
+	}
+
+	static long createEntry(int move, int depth, int score, int weight)
+	{
+		return ((long) move & 0xFF) << 56 | ((long) depth & 0xFF) << 48 | ((long) score & 0xFFFF) << 32 | (weight & 0xFFFFFFFFL);
+	}
+}
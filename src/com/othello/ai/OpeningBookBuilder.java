@@ -0,0 +1,405 @@
+package com.othello.ai;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.othello.game.BitBoard;
+import com.othello.game.Board;
+import com.othello.game.BoardFactory;
+import com.othello.game.Symmetry;
+import com.othello.game.Team;
+
+/**
+ * Builds an opening book from the standard start by drop-out expansion. Every move of an expanded position is searched,
+ * and each reply becomes a line that can be expanded next. A line costs how much score was given up along it compared to
+ * the best move of each position, plus a little for every move so that the book doesn't only grow deeper. The cheapest
+ * line is always expanded first, and replies that give up more than the window are never expanded. The book follows the
+ * best lines and the replies close to them deep into the game instead of every line to the same depth.
+ * <p>
+ * Once the budget of expansions is used up, the scores of the positions that were not expanded are backed up through the
+ * expanded ones. Each expanded position is stored with the move that is best after the backing up. Searches to odd and
+ * even depths score positions differently, so every search is cut short by a move where needed to end the same amount of
+ * moves from the start. Otherwise scores backed up through an extra move could not be compared with their siblings.
+ *
+ * @version 1.0.0
+ */
+public class OpeningBookBuilder
+{
+	/**
+	 * What each move of a line costs on top of the score it gives up.
+	 */
+	private static final int MOVE_COST = 1;
+
+	/**
+	 * How many positions are expanded between backing the scores up.
+	 */
+	private static final int BACK_UP_INTERVAL = 100;
+
+	private final Search search;
+
+	/**
+	 * The depth each position is searched to, or one less.
+	 */
+	private final int depth;
+
+	/**
+	 * The deepest a line is expanded, in moves from the start.
+	 */
+	private final int plies;
+
+	/**
+	 * How much worse than the best move a reply can be and still be expanded.
+	 */
+	private final int window;
+
+	/**
+	 * Every position searched, keyed by the hash of its canonical form.
+	 */
+	private final Map<Long, Node> nodes = new HashMap<>();
+
+	private final PriorityQueue<Line> lines = new PriorityQueue<>();
+
+	private int expanded;
+
+	/**
+	 * @param search The search used for every position.
+	 * @param depth The depth each position is searched to, or one less so that every search ends an even amount of moves
+	 *              from the start.
+	 * @param plies The deepest a line is expanded, in moves from the start.
+	 * @param window How much worse than the best move a reply can be and still be expanded.
+	 */
+	public OpeningBookBuilder(Search search, int depth, int plies, int window)
+	{
+		this.search = search;
+		this.depth = depth;
+		this.plies = plies;
+		this.window = window;
+	}
+
+	/**
+	 * Expands lines from a position until the budget is used up or no line is left.
+	 *
+	 * @param player The pieces of the team that is moving.
+	 * @param opponent The pieces of the other team.
+	 * @param team The team that is moving.
+	 * @param expansions The most positions to expand.
+	 */
+	public void expand(long player, long opponent, Team team, int expansions)
+	{
+		Node root = getNode(player, opponent, team, 0);
+		root.cost = 0;
+		lines.add(new Line(root, 0));
+
+		while (expanded < expansions)
+		{
+			if (lines.isEmpty() || expanded % BACK_UP_INTERVAL == 0) followBestMoves();
+			if (lines.isEmpty()) break;
+
+			Line line = lines.poll();
+			Node node = line.node;
+
+			//A cheaper way to the position may have been found after the line was queued.
+			if (node.expanded || line.cost > node.cost) continue;
+
+			expand(node);
+
+			if (expanded % 100 == 0)
+			{
+				System.out.printf("Expanded %d positions, %d searched, line cost %d at move %d%n", expanded, nodes.size(), line.cost, node.ply);
+			}
+		}
+	}
+
+	/**
+	 * Searches every reply of a position and queues those inside the window.
+	 */
+	private void expand(Node node)
+	{
+		long moves = BitBoard.getMoves(node.player, node.opponent);
+		int count = Long.bitCount(moves);
+		Team next = node.team == Team.BLACK ? Team.WHITE : Team.BLACK;
+
+		node.expanded = true;
+		node.moves = new int[count];
+		node.children = new Node[count];
+		expanded++;
+
+		int best = Integer.MIN_VALUE;
+
+		for (int i = 0; moves != 0; moves &= moves - 1, i++)
+		{
+			int square = Long.numberOfTrailingZeros(moves);
+			long flips = BitBoard.getFlips(node.player, node.opponent, square);
+			Node child = getNode(node.opponent & ~flips, node.player | flips | (1L << square), next, node.ply + 1);
+
+			node.moves[i] = square;
+			node.children[i] = child;
+			best = Math.max(best, getScore(node, child, child.score));
+		}
+
+		for (Node child : node.children)
+		{
+			int loss = best - getScore(node, child, child.score);
+			int cost = node.cost + loss + MOVE_COST;
+
+			if (loss > window || child.ply >= plies || child.ended || cost >= child.cost) continue;
+
+			child.cost = cost;
+			lines.add(new Line(child, cost));
+		}
+	}
+
+	/**
+	 * Backs the scores up and queues the best reply of every expanded position as if it gave nothing up. Scores backed up
+	 * through more moves are usually lower than those of a single search, because the opponent's best reply is picked from
+	 * many, so the best move often changes to a reply that was not expanded. Without this the book would stop there.
+	 */
+	private void followBestMoves()
+	{
+		backUpAll();
+
+		for (Node node : nodes.values())
+		{
+			if (!node.expanded) continue;
+
+			Node child = node.children[node.bestChild];
+			int cost = node.cost + MOVE_COST;
+
+			if (child.expanded || child.ended || child.ply >= plies || cost >= child.cost) continue;
+
+			child.cost = cost;
+			lines.add(new Line(child, cost));
+		}
+	}
+
+	/**
+	 * Finds a position that was already searched, or searches it. A team that has to pass is skipped over, because passes
+	 * are not stored in the book.
+	 */
+	private Node getNode(long player, long opponent, Team team, int ply)
+	{
+		if (BitBoard.getMoves(player, opponent) == 0 && BitBoard.getMoves(opponent, player) != 0)
+		{
+			long swap = player;
+			player = opponent;
+			opponent = swap;
+			team = team == Team.BLACK ? Team.WHITE : Team.BLACK;
+		}
+
+		long key = Symmetry.hash(team == Team.BLACK ? player : opponent, team == Team.BLACK ? opponent : player, team);
+		Node node = nodes.get(key);
+
+		if (node == null)
+		{
+			node = new Node(player, opponent, team, ply);
+			node.ended = BitBoard.getMoves(player, opponent) == 0;
+
+			if (node.ended)
+			{
+				node.score = Search.getFinalScore(player, opponent);
+			}
+			else
+			{
+				search.setMaxDepth(getSearchDepth(ply));
+				node.score = search.search(player, opponent, team).getScore();
+			}
+
+			nodes.put(key, node);
+		}
+
+		return node;
+	}
+
+	/**
+	 * @return The depth a position that many moves from the start is searched to, so that the search ends an even amount of
+	 *         moves from the start.
+	 */
+	private int getSearchDepth(int ply)
+	{
+		return depth - ((ply + depth) & 1);
+	}
+
+	/**
+	 * @param score A score of the reply for the team moving in it.
+	 * @return The score for the team moving in the position. A reply where the other team has to pass is from the side of
+	 *         the team that moved, so its score is kept as it is.
+	 */
+	private static int getScore(Node node, Node child, int score)
+	{
+		return child.team == node.team ? score : -score;
+	}
+
+	/**
+	 * Backs the scores up through the expanded positions and adds each of them to a book.
+	 *
+	 * @param writer The book to add to.
+	 */
+	public void write(OpeningBookWriter writer)
+	{
+		backUpAll();
+
+		for (Node node : nodes.values())
+		{
+			if (node.expanded) writer.add(node.player, node.opponent, node.team, node.moves[node.bestChild], getSearchDepth(node.ply), node.value, 1);
+		}
+	}
+
+	private void backUpAll()
+	{
+		for (Node node : nodes.values())
+		{
+			node.backedUp = false;
+		}
+
+		for (Node node : nodes.values())
+		{
+			backUp(node);
+		}
+	}
+
+	/**
+	 * Works out the score of a position from the scores of its replies, or from its own search if it was not expanded. Every
+	 * move places a piece, so lines can't loop and each position is only worked out once.
+	 *
+	 * @return The score for the team moving.
+	 */
+	private int backUp(Node node)
+	{
+		if (!node.expanded) return node.score;
+		if (node.backedUp) return node.value;
+
+		int best = Integer.MIN_VALUE;
+
+		for (int i = 0; i < node.children.length; i++)
+		{
+			Node child = node.children[i];
+			int score = getScore(node, child, backUp(child));
+
+			if (score > best)
+			{
+				best = score;
+				node.bestChild = i;
+			}
+		}
+
+		node.value = best;
+		node.backedUp = true;
+
+		return best;
+	}
+
+	/**
+	 * @param args The file to write (default book.bin), how many moves deep lines can go (default 20), the depth each
+	 *             position is searched to (default 10), the most positions to expand (default 2000) and how much worse
+	 *             than the best move a reply can be and still be expanded (default 40).
+	 * @throws IOException If the book can't be written.
+	 */
+	public static void main(String... args) throws IOException
+	{
+		String file = args.length > 0 ? args[0] : "book.bin";
+		int plies = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		int depth = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+		int expansions = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+		int window = args.length > 4 ? Integer.parseInt(args[4]) : 40;
+
+		Search search = new Search();
+		search.setThreads(Runtime.getRuntime().availableProcessors());
+		search.setTimeLimit(Long.MAX_VALUE);
+
+		Board board = BoardFactory.createStandardBoard();
+		Team startTurn = board.getTurn();
+		long start = board.getBitBoard().getPieces(startTurn);
+		long startOpponent = board.getBitBoard().getPieces(startTurn == Team.BLACK ? Team.WHITE : Team.BLACK);
+
+		OpeningBookBuilder builder = new OpeningBookBuilder(search, depth, plies, window);
+		builder.expand(start, startOpponent, startTurn, expansions);
+
+		OpeningBookWriter writer = new OpeningBookWriter();
+		builder.write(writer);
+		writer.write(Paths.get(file));
+		System.out.printf("Wrote %d positions to %s%n", writer.getSize(), file);
+	}
+
+	/**
+	 * A position that has been searched, with its replies once it is expanded.
+	 */
+	private static class Node
+	{
+		private final long player;
+
+		private final long opponent;
+
+		private final Team team;
+
+		/**
+		 * How many moves from the start the position was first reached.
+		 */
+		private final int ply;
+
+		/**
+		 * Whether the game is over.
+		 */
+		private boolean ended;
+
+		/**
+		 * The score of the search for the team moving.
+		 */
+		private int score;
+
+		/**
+		 * The cheapest line found to the position.
+		 */
+		private int cost = Integer.MAX_VALUE;
+
+		private boolean expanded;
+
+		private int[] moves;
+
+		private Node[] children;
+
+		private boolean backedUp;
+
+		/**
+		 * The score backed up from the replies.
+		 */
+		private int value;
+
+		/**
+		 * The index of the best reply after backing up.
+		 */
+		private int bestChild;
+
+		private Node(long player, long opponent, Team team, int ply)
+		{
+			this.player = player;
+			this.opponent = opponent;
+			this.team = team;
+			this.ply = ply;
+		}
+	}
+
+	/**
+	 * A line waiting to be expanded, ordered by its cost.
+	 */
+	private static class Line implements Comparable<Line>
+	{
+		private final Node node;
+
+		private final int cost;
+
+		private Line(Node node, int cost)
+		{
+			this.node = node;
+			this.cost = cost;
+		}
+
+		@Override
+		public int compareTo(Line other)
+		{
+			return Integer.compare(cost, other.cost);
+		}
+	}
+}
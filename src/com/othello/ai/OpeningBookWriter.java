@@ -0,0 +1,119 @@
+package com.othello.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import com.othello.game.Symmetry;
+import com.othello.game.Team;
+
+/**
+ * Collects positions and writes them out in the format read by {@link OpeningBook}. Positions are kept in primitive
+ * arrays until the book is written so that books with tens of millions of positions can be built without an object for
+ * each one. If a position is added twice, or a symmetry of it is, the last move added wins.
+ *
+ * @version 1.0.0
+ */
+public class OpeningBookWriter
+{
+	private long[] keys = new long[1024];
+
+	private long[] entries = new long[1024];
+
+	private int size;
+
+	/**
+	 * Adds a position to the book.
+	 *
+	 * @param player The pieces of the team that is moving.
+	 * @param opponent The pieces of the other team.
+	 * @param team The team that is moving.
+	 * @param move The slot to play.
+	 * @param depth How deep the move was searched.
+	 * @param score The score of the move for the team moving.
+	 * @param weight How often the position was seen.
+	 */
+	public void add(long player, long opponent, Team team, int move, int depth, int score, int weight)
+	{
+		if (size == keys.length)
+		{
+			keys = Arrays.copyOf(keys, size * 2);
+			entries = Arrays.copyOf(entries, size * 2);
+		}
+
+		long black = team == Team.BLACK ? player : opponent;
+		long white = team == Team.BLACK ? opponent : player;
+		int symmetry = Symmetry.getCanonical(black, white);
+
+		keys[size] = OpeningBook.getKey(black, white, team, symmetry);
+		entries[size] = OpeningBook.createEntry(Symmetry.transformSquare(move, symmetry), depth, score, weight);
+		size++;
+	}
+
+	public int getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * Writes the book. The table is sized so that it is at most half full, which keeps lookups to one or two probes.
+	 *
+	 * @param path The file to write to, it is replaced if it exists.
+	 * @throws IOException If the file can't be written.
+	 */
+	public void write(Path path) throws IOException
+	{
+		long slots = Long.highestOneBit(Math.max(1, size) * 2L - 1) << 1;
+		long fileSize = OpeningBook.HEADER_BYTES + slots * OpeningBook.ENTRY_BYTES;
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE))
+		{
+			MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((fileSize + OpeningBook.SEGMENT_BYTES - 1) / OpeningBook.SEGMENT_BYTES)];
+
+			for (int i = 0; i < segments.length; i++)
+			{
+				long position = (long) i * OpeningBook.SEGMENT_BYTES;
+				segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.min(OpeningBook.SEGMENT_BYTES, fileSize - position));
+			}
+
+			long positions = 0;
+
+			for (int i = 0; i < size; i++)
+			{
+				long key = keys[i];
+
+				for (long slot = key & (slots - 1); ; slot = (slot + 1) & (slots - 1))
+				{
+					long offset = OpeningBook.HEADER_BYTES + slot * OpeningBook.ENTRY_BYTES;
+					MappedByteBuffer segment = segments[(int) (offset / OpeningBook.SEGMENT_BYTES)];
+					int index = (int) (offset % OpeningBook.SEGMENT_BYTES);
+					long stored = segment.getLong(index);
+
+					if (stored == 0 || stored == key)
+					{
+						if (stored == 0) positions++;
+
+						segment.putLong(index, key);
+						segment.putLong(index + 8, entries[i]);
+						break;
+					}
+				}
+			}
+
+			ByteBuffer header = segments[0];
+			header.putInt(0, OpeningBook.MAGIC);
+			header.putInt(4, OpeningBook.VERSION);
+			header.putLong(8, slots);
+			header.putLong(16, positions);
+
+			for (MappedByteBuffer segment : segments)
+			{
+				segment.force();
+			}
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package com.othello.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.othello.game.BitBoard;
+import com.othello.game.Team;
+
+/**
+ * Measures how well the search scales with threads. A fixed set of midgame positions is searched to the same depth with 1,
+ * 2, 4 and so on up to the given amount of threads, and the nodes per second and time to depth of each are compared to a
+ * single thread.
+ *
+ * @version 1.0.0
+ */
+public class ParallelBenchmark
+{
+	/**
+	 * @param args The depth to search to (default 10), the most threads to try (default every core) and the amount of
+	 *             positions (default 10).
+	 */
+	public static void main(String... args)
+	{
+		int depth = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int count = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+		List<long[]> positions = createPositions(count, 20, new Random(1));
+		double baseNodesPerSecond = 0;
+		double baseTime = 0;
+
+		for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads))
+		{
+			Search search = new Search();
+			search.setThreads(threads);
+			search.setTimeLimit(Long.MAX_VALUE);
+			search.setMaxDepth(depth);
+
+			long nodes = 0;
+			long nanos = 0;
+
+			for (long[] position : positions)
+			{
+				search.getTranspositionTable().clear();
+
+				SearchResult result = search.search(position[0], position[1], Team.BLACK);
+				nodes += result.getNodes();
+				nanos += result.getTimeToDepth(result.getDepth());
+			}
+
+			double nodesPerSecond = nodes * 1e9 / nanos;
+			double time = nanos / 1e6;
+
+			if (threads == 1)
+			{
+				baseNodesPerSecond = nodesPerSecond;
+				baseTime = time;
+			}
+
+			System.out.printf("%2d threads: %,12.0f nodes/s (%.2fx), time to depth %d %,9.1fms (%.2fx)%n", threads, nodesPerSecond, nodesPerSecond / baseNodesPerSecond, depth, time, baseTime / time);
+
+			if (threads == maxThreads) break;
+		}
+	}
+
+	/**
+	 * Plays random moves from the standard start to get positions to search.
+	 *
+	 * @param count The amount of positions.
+	 * @param plies How many moves to play for each position.
+	 * @param random The source of the random moves.
+	 * @return Pairs of the pieces of the team to move and the pieces of the other team.
+	 */
+	static List<long[]> createPositions(int count, int plies, Random random)
+	{
+		List<long[]> positions = new ArrayList<>();
+
+		while (positions.size() < count)
+		{
+			long player = 0x0000000810000000L;
+			long opponent = 0x0000001008000000L;
+			int ply = 0;
+
+			while (ply < plies)
+			{
+				long moves = BitBoard.getMoves(player, opponent);
+
+				if (moves == 0)
+				{
+					if (BitBoard.getMoves(opponent, player) == 0) break;
+
+					long swap = player;
+					player = opponent;
+					opponent = swap;
+					continue;
+				}
+
+				for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--)
+				{
+					moves &= moves - 1;
+				}
+
+				int square = Long.numberOfTrailingZeros(moves);
+				long flips = BitBoard.getFlips(player, opponent, square);
+				long next = opponent & ~flips;
+
+				opponent = player | flips | (1L << square);
+				player = next;
+				ply++;
+			}
+
+			if (ply == plies && BitBoard.getMoves(player, opponent) != 0)
+			{
+				positions.add(new long[] { player, opponent });
+			}
+		}
+
+		return positions;
+	}
+}
@@ -0,0 +1,320 @@
+package com.othello.ai;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.othello.game.BitBoard;
+import com.othello.game.Symmetry;
+
+/**
+ * An evaluation made from patterns of slots. Every pattern is a line or block of slots, and each way of filling it with
+ * the player's pieces, the opponent's pieces and empty slots has its own weight. The patterns are the edges, the second,
+ * third and fourth rows and columns, the diagonals of length four to eight and the 3x3 block at each corner, plus the
+ * difference in mobility and the parity of the empty slots.
+ * <p>
+ * Weights are kept for each phase of the game, every four pieces placed starts a new phase, in one flat short array so an
+ * evaluation is a handful of table lookups. The board is rotated a quarter turn at a time so that one set of bit tricks
+ * reads the patterns on all four sides, except for the two long diagonals which are read in the first two turns only.
+ * Weights can be loaded from a binary file, see {@link #load(Path)}; without one a set based on the usual value of each
+ * slot is used.
+ *
+ * @version 1.0.0
+ */
+public class PatternEvaluation implements Evaluation
+{
+	public static final int PHASES = 16;
+
+	static final int EDGE = 0;
+	static final int LINE_2 = 1;
+	static final int LINE_3 = 2;
+	static final int LINE_4 = 3;
+	static final int DIAGONAL_8 = 4;
+	static final int DIAGONAL_7 = 5;
+	static final int DIAGONAL_6 = 6;
+	static final int DIAGONAL_5 = 7;
+	static final int DIAGONAL_4 = 8;
+	static final int CORNER = 9;
+
+	/**
+	 * The slots of each pattern on the unrotated board, in the order they make up the pattern's index.
+	 */
+	static final int[][] PATTERNS =
+		{
+				{ 0, 1, 2, 3, 4, 5, 6, 7 },
+				{ 8, 9, 10, 11, 12, 13, 14, 15 },
+				{ 16, 17, 18, 19, 20, 21, 22, 23 },
+				{ 24, 25, 26, 27, 28, 29, 30, 31 },
+				{ 0, 9, 18, 27, 36, 45, 54, 63 },
+				{ 1, 10, 19, 28, 37, 46, 55 },
+				{ 2, 11, 20, 29, 38, 47 },
+				{ 3, 12, 21, 30, 39 },
+				{ 4, 13, 22, 31 },
+				{ 0, 1, 2, 8, 9, 10, 16, 17, 18 }
+		};
+
+	/**
+	 * Where the weights of each pattern start within a phase.
+	 */
+	private static final int[] OFFSETS = new int[PATTERNS.length];
+
+	/**
+	 * The amount of weights in one phase.
+	 */
+	static final int PHASE_SIZE;
+
+	private static final int FILE_MAGIC = 0x50455631;
+
+	/**
+	 * The value of a bitmask of up to nine slots read as base three digits, a set bit is 1 and a clear bit is 0. The index
+	 * of a pattern is the value of the player's pieces plus twice the value of the opponent's.
+	 */
+	private static final int[] TERNARY = new int[512];
+
+	/**
+	 * The phase for each amount of pieces on the board.
+	 */
+	private static final int[] PHASE = new int[65];
+
+	/**
+	 * The usual value of each slot, used for the default weights.
+	 */
+	private static final int[] SLOT_VALUES =
+		{
+				100, -20, 10, 5, 5, 10, -20, 100,
+				-20, -50, -2, -2, -2, -2, -50, -20,
+				10, -2, -1, -1, -1, -1, -2, 10,
+				5, -2, -1, -1, -1, -1, -2, 5,
+				5, -2, -1, -1, -1, -1, -2, 5,
+				10, -2, -1, -1, -1, -1, -2, 10,
+				-20, -50, -2, -2, -2, -2, -50, -20,
+				100, -20, 10, 5, 5, 10, -20, 100
+		};
+
+	private static PatternEvaluation defaultEvaluation;
+
+	static
+	{
+		int offset = 0;
+		for (int pattern = 0; pattern < PATTERNS.length; pattern++)
+		{
+			OFFSETS[pattern] = offset;
+			offset += pow3(PATTERNS[pattern].length);
+		}
+		PHASE_SIZE = offset;
+
+		for (int bits = 0; bits < TERNARY.length; bits++)
+		{
+			for (int i = 0; i < 9; i++)
+			{
+				if ((bits & (1 << i)) != 0) TERNARY[bits] += pow3(i);
+			}
+		}
+
+		for (int discs = 0; discs < PHASE.length; discs++)
+		{
+			PHASE[discs] = Math.min(PHASES - 1, Math.max(0, discs - 4) / 4);
+		}
+	}
+
+	/**
+	 * The weights of every pattern, phase after phase.
+	 */
+	private final short[] weights;
+
+	/**
+	 * The weight of each move of mobility for each phase.
+	 */
+	private final short[] mobility;
+
+	/**
+	 * The bonus for moving when an odd amount of slots are empty, for each phase.
+	 */
+	private final short[] parity;
+
+	private PatternEvaluation(short[] weights, short[] mobility, short[] parity)
+	{
+		this.weights = weights;
+		this.mobility = mobility;
+		this.parity = parity;
+	}
+
+	/**
+	 * @return A shared evaluation with the default weights.
+	 */
+	public static synchronized PatternEvaluation getDefault()
+	{
+		if (defaultEvaluation == null)
+		{
+			defaultEvaluation = createDefault();
+		}
+		return defaultEvaluation;
+	}
+
+	private static PatternEvaluation createDefault()
+	{
+		short[] weights = new short[PHASES * PHASE_SIZE];
+		short[] mobility = new short[PHASES];
+		short[] parity = new short[PHASES];
+
+		for (int phase = 0; phase < PHASES; phase++)
+		{
+			//The value of a slot matters less as the board fills up and the pieces themselves start to count.
+			double positional = 1 - phase / (double) (PHASES + 4);
+			double discs = phase / (double) PHASES;
+
+			for (int pattern = 0; pattern < PATTERNS.length; pattern++)
+			{
+				int[] slots = PATTERNS[pattern];
+
+				for (int index = 0; index < pow3(slots.length); index++)
+				{
+					double weight = 0;
+
+					for (int i = 0, digits = index; i < slots.length; i++, digits /= 3)
+					{
+						int sign = digits % 3 == 1 ? 1 : digits % 3 == 2 ? -1 : 0;
+						weight += sign * (SLOT_VALUES[slots[i]] * positional + discs * 4) / 4;
+					}
+
+					weights[phase * PHASE_SIZE + OFFSETS[pattern] + index] = (short) Math.round(weight);
+				}
+			}
+
+			mobility[phase] = (short) Math.round(20 * (1 - discs));
+			parity[phase] = (short) Math.round(10 * discs);
+		}
+
+		return new PatternEvaluation(weights, mobility, parity);
+	}
+
+	/**
+	 * Reads weights written by {@link #save(Path)}. The file holds a magic number, the amount of phases and the size of a
+	 * phase as ints, followed by the pattern weights, the mobility weights and the parity weights as shorts.
+	 *
+	 * @param path The file to read.
+	 * @return The evaluation.
+	 * @throws IOException If the file can't be read or was made for different patterns.
+	 */
+	public static PatternEvaluation load(Path path) throws IOException
+	{
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path))))
+		{
+			if (in.readInt() != FILE_MAGIC || in.readInt() != PHASES || in.readInt() != PHASE_SIZE)
+			{
+				throw new IOException(path + " does not hold pattern weights");
+			}
+
+			short[] weights = new short[PHASES * PHASE_SIZE];
+			short[] mobility = new short[PHASES];
+			short[] parity = new short[PHASES];
+
+			for (int i = 0; i < weights.length; i++) weights[i] = in.readShort();
+			for (int i = 0; i < mobility.length; i++) mobility[i] = in.readShort();
+			for (int i = 0; i < parity.length; i++) parity[i] = in.readShort();
+
+			return new PatternEvaluation(weights, mobility, parity);
+		}
+	}
+
+	/**
+	 * Writes the weights so they can be read by {@link #load(Path)}.
+	 *
+	 * @param path The file to write.
+	 * @throws IOException If the file can't be written.
+	 */
+	public void save(Path path) throws IOException
+	{
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path))))
+		{
+			out.writeInt(FILE_MAGIC);
+			out.writeInt(PHASES);
+			out.writeInt(PHASE_SIZE);
+
+			for (short weight : weights) out.writeShort(weight);
+			for (short weight : mobility) out.writeShort(weight);
+			for (short weight : parity) out.writeShort(weight);
+		}
+	}
+
+	@Override
+	public int evaluate(long player, long opponent)
+	{
+		int phase = PHASE[Long.bitCount(player | opponent)];
+		int base = phase * PHASE_SIZE;
+
+		int score = evaluatePatterns(player, opponent, base) + evaluateDiagonal(player, opponent, base);
+		long rotatedPlayer = Symmetry.rotate(player);
+		long rotatedOpponent = Symmetry.rotate(opponent);
+		score += evaluatePatterns(rotatedPlayer, rotatedOpponent, base) + evaluateDiagonal(rotatedPlayer, rotatedOpponent, base);
+		rotatedPlayer = Symmetry.rotate(rotatedPlayer);
+		rotatedOpponent = Symmetry.rotate(rotatedOpponent);
+		score += evaluatePatterns(rotatedPlayer, rotatedOpponent, base);
+		score += evaluatePatterns(Symmetry.rotate(rotatedPlayer), Symmetry.rotate(rotatedOpponent), base);
+
+		score += mobility[phase] * (Long.bitCount(BitBoard.getMoves(player, opponent)) - Long.bitCount(BitBoard.getMoves(opponent, player)));
+		score += parity[phase] * (Long.bitCount(~(player | opponent)) & 1);
+
+		return Math.max(-MAX, Math.min(MAX, score));
+	}
+
+	/**
+	 * Reads the patterns along the top edge and the top left corner of the board, except the long diagonal.
+	 */
+	private int evaluatePatterns(long player, long opponent, int base)
+	{
+		short[] weights = this.weights;
+
+		return weights[base + OFFSETS[EDGE] + index(player & 0xFF, opponent & 0xFF)]
+				+ weights[base + OFFSETS[LINE_2] + index((player >>> 8) & 0xFF, (opponent >>> 8) & 0xFF)]
+				+ weights[base + OFFSETS[LINE_3] + index((player >>> 16) & 0xFF, (opponent >>> 16) & 0xFF)]
+				+ weights[base + OFFSETS[LINE_4] + index((player >>> 24) & 0xFF, (opponent >>> 24) & 0xFF)]
+				+ weights[base + OFFSETS[DIAGONAL_7] + index(diagonal(player, 0x0080402010080402L, 57), diagonal(opponent, 0x0080402010080402L, 57))]
+				+ weights[base + OFFSETS[DIAGONAL_6] + index(diagonal(player, 0x0000804020100804L, 58), diagonal(opponent, 0x0000804020100804L, 58))]
+				+ weights[base + OFFSETS[DIAGONAL_5] + index(diagonal(player, 0x0000008040201008L, 59), diagonal(opponent, 0x0000008040201008L, 59))]
+				+ weights[base + OFFSETS[DIAGONAL_4] + index(diagonal(player, 0x0000000080402010L, 60), diagonal(opponent, 0x0000000080402010L, 60))]
+				+ weights[base + OFFSETS[CORNER] + index(corner(player), corner(opponent))];
+	}
+
+	/**
+	 * Reads the long diagonal from the top left corner. Turning the board twice brings each long diagonal back onto itself,
+	 * so this is only read in the first two rotations or both would be counted twice.
+	 */
+	private int evaluateDiagonal(long player, long opponent, int base)
+	{
+		return weights[base + OFFSETS[DIAGONAL_8] + index(diagonal(player, 0x8040201008040201L, 56), diagonal(opponent, 0x8040201008040201L, 56))];
+	}
+
+	private static int index(long player, long opponent)
+	{
+		return TERNARY[(int) player] + 2 * TERNARY[(int) opponent];
+	}
+
+	/**
+	 * Gathers the slots of a diagonal into the low bits. Every slot of a diagonal is in a different column, so multiplying
+	 * by a bit in every row stacks them all into the top row without any of them overlapping.
+	 */
+	private static long diagonal(long pieces, long mask, int shift)
+	{
+		return ((pieces & mask) * 0x0101010101010101L) >>> shift;
+	}
+
+	/**
+	 * Gathers the 3x3 block in the top left corner into the low nine bits.
+	 */
+	private static long corner(long pieces)
+	{
+		return (pieces & 0x7) | ((pieces >>> 5) & 0x38) | ((pieces >>> 10) & 0x1C0);
+	}
+
+	private static int pow3(int exponent)
+	{
+		int result = 1;
+		for (int i = 0; i < exponent; i++) result *= 3;
+		return result;
+	}
+}
@@ -0,0 +1,201 @@
+package com.othello.ai;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The parameters of Multi-ProbCut, a way of cutting off nodes without searching them fully. The score of a deep search is
+ * close to a linear function of the score of a shallow search of the same position, {@code deep = slope * shallow +
+ * intercept} with errors spread by a standard deviation. Before searching a node deeply the search runs a null window search
+ * at the shallow depth, and if its score makes the deep score very likely to be outside the window the node is cut off
+ * straight away. The threshold is how many standard deviations the prediction has to be outside the window, so raising
+ * it prunes less and makes fewer mistakes.
+ * <p>
+ * There is a line for every depth in each phase of the game, fitted from search logs by {@link ProbCutFitter}. The
+ * shallow searches prune too, so cutoffs are tried at every depth of the tree. Depths and phases without enough data to
+ * fit a line are never pruned.
+ *
+ * @version 1.0.0
+ */
+public class ProbCut
+{
+	/**
+	 * Every ten empty slots starts a new phase.
+	 */
+	public static final int PHASES = 6;
+
+	/**
+	 * The shallowest depth that is pruned, below it the shallow search would save too little.
+	 */
+	public static final int MIN_DEPTH = 3;
+
+	public static final int MAX_DEPTH = 24;
+
+	private static final int FILE_MAGIC = 0x4D504331;
+
+	private final float[] slopes = new float[PHASES * (MAX_DEPTH + 1)];
+
+	private final float[] intercepts = new float[PHASES * (MAX_DEPTH + 1)];
+
+	/**
+	 * The standard deviation of the error of each line, 0 where there is no line.
+	 */
+	private final float[] deviations = new float[PHASES * (MAX_DEPTH + 1)];
+
+	private double threshold = 1.5;
+
+	/**
+	 * @param depth The depth of the deep search.
+	 * @return The depth of the shallow search used to predict it. It is about half as deep and has the same parity,
+	 *         because searches to odd and even depths score positions differently.
+	 */
+	public static int getShallowDepth(int depth)
+	{
+		return depth - 2 * ((depth + 2) / 4);
+	}
+
+	/**
+	 * @param empties The amount of empty slots.
+	 * @return The phase of the game.
+	 */
+	public static int getPhase(int empties)
+	{
+		return Math.min(PHASES - 1, Math.max(0, empties - 1) / 10);
+	}
+
+	/**
+	 * Sets the line for a depth in a phase.
+	 *
+	 * @param phase The phase.
+	 * @param depth The depth of the deep search.
+	 * @param slope How much the deep score changes with the shallow score, only positive slopes can be used.
+	 * @param intercept The deep score when the shallow score is 0.
+	 * @param deviation The standard deviation of the error, 0 to never prune at this depth.
+	 */
+	public void set(int phase, int depth, double slope, double intercept, double deviation)
+	{
+		if (depth < MIN_DEPTH || depth > MAX_DEPTH)
+		{
+			throw new IllegalArgumentException("Depth " + depth + " can not be pruned");
+		}
+
+		int index = index(phase, depth);
+		slopes[index] = (float) slope;
+		intercepts[index] = (float) intercept;
+		deviations[index] = slope > 0 ? (float) deviation : 0;
+	}
+
+	/**
+	 * @param threshold How many standard deviations a prediction has to be outside the window to prune.
+	 */
+	public void setThreshold(double threshold)
+	{
+		this.threshold = threshold;
+	}
+
+	public double getThreshold()
+	{
+		return threshold;
+	}
+
+	/**
+	 * @return Whether there is a line for the depth in the phase.
+	 */
+	public boolean has(int empties, int depth)
+	{
+		return depth >= MIN_DEPTH && depth <= MAX_DEPTH && deviations[index(getPhase(empties), depth)] > 0;
+	}
+
+	/**
+	 * @param empties The amount of empty slots.
+	 * @param depth The depth of the deep search, which must have a line.
+	 * @param beta The top of the window.
+	 * @return The shallow score at or above which the deep score is very likely at least beta.
+	 */
+	int getHighBound(int empties, int depth, int beta)
+	{
+		int index = index(getPhase(empties), depth);
+
+		return (int) Math.ceil((beta - intercepts[index] + threshold * deviations[index]) / slopes[index]);
+	}
+
+	/**
+	 * @param empties The amount of empty slots.
+	 * @param depth The depth of the deep search, which must have a line.
+	 * @param alpha The bottom of the window.
+	 * @return The shallow score at or below which the deep score is very likely at most alpha.
+	 */
+	int getLowBound(int empties, int depth, int alpha)
+	{
+		int index = index(getPhase(empties), depth);
+
+		return (int) Math.floor((alpha - intercepts[index] - threshold * deviations[index]) / slopes[index]);
+	}
+
+	private static int index(int phase, int depth)
+	{
+		return phase * (MAX_DEPTH + 1) + depth;
+	}
+
+	/**
+	 * Reads parameters written by {@link #save(Path)}. The file holds a magic number, the amount of phases and the deepest
+	 * depth as ints, followed by the slope, intercept and deviation of every depth of every phase as floats.
+	 *
+	 * @param path The file to read.
+	 * @return The parameters, with the default threshold. Depths whose slope isn't positive never prune, as with
+	 *         {@link #set(int, int, double, double, double)}.
+	 * @throws IOException If the file can't be read or was made for different phases or depths.
+	 */
+	public static ProbCut load(Path path) throws IOException
+	{
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path))))
+		{
+			if (in.readInt() != FILE_MAGIC || in.readInt() != PHASES || in.readInt() != MAX_DEPTH)
+			{
+				throw new IOException(path + " does not hold ProbCut parameters");
+			}
+
+			ProbCut probCut = new ProbCut();
+
+			for (int i = 0; i < probCut.slopes.length; i++)
+			{
+				probCut.slopes[i] = in.readFloat();
+				probCut.intercepts[i] = in.readFloat();
+				float deviation = in.readFloat();
+
+				//Like set, a line that isn't rising can't turn a window into a bound, so it never prunes.
+				probCut.deviations[i] = probCut.slopes[i] > 0 ? deviation : 0;
+			}
+
+			return probCut;
+		}
+	}
+
+	/**
+	 * Writes the parameters so they can be read by {@link #load(Path)}.
+	 *
+	 * @param path The file to write.
+	 * @throws IOException If the file can't be written.
+	 */
+	public void save(Path path) throws IOException
+	{
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path))))
+		{
+			out.writeInt(FILE_MAGIC);
+			out.writeInt(PHASES);
+			out.writeInt(MAX_DEPTH);
+
+			for (int i = 0; i < slopes.length; i++)
+			{
+				out.writeFloat(slopes[i]);
+				out.writeFloat(intercepts[i]);
+				out.writeFloat(deviations[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package com.othello.ai;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Fits the {@link ProbCut} parameters from search logs written by {@link Search#setLog(java.io.PrintWriter)}. Every line
+ * gives a position's score at each depth, so each depth can be paired with its shallow depth and a line fitted through the
+ * pairs of each phase by least squares. Scores of won or lost games are left out because they don't follow the line.
+ *
+ * @version 1.0.0
+ */
+public class ProbCutFitter
+{
+	/**
+	 * Depths with fewer pairs than this in a phase are not given a line.
+	 */
+	private static final int MIN_SAMPLES = 30;
+
+	private final long[] counts = new long[ProbCut.PHASES * (ProbCut.MAX_DEPTH + 1)];
+
+	private final double[] sumShallow = new double[counts.length];
+
+	private final double[] sumDeep = new double[counts.length];
+
+	private final double[] sumShallowSquared = new double[counts.length];
+
+	private final double[] sumDeepSquared = new double[counts.length];
+
+	private final double[] sumProduct = new double[counts.length];
+
+	/**
+	 * Adds the pairs of one line of a search log.
+	 *
+	 * @param line The amount of empty slots followed by the score of each depth.
+	 */
+	public void add(String line)
+	{
+		String[] parts = line.trim().split("\\s+");
+
+		if (parts[0].isEmpty()) return;
+
+		int phase = ProbCut.getPhase(Integer.parseInt(parts[0]));
+		int[] scores = new int[parts.length];
+
+		for (int depth = 1; depth < parts.length; depth++)
+		{
+			scores[depth] = Integer.parseInt(parts[depth]);
+		}
+
+		for (int depth = ProbCut.MIN_DEPTH; depth < scores.length && depth <= ProbCut.MAX_DEPTH; depth++)
+		{
+			int shallow = scores[ProbCut.getShallowDepth(depth)];
+			int deep = scores[depth];
+
+			if (Math.abs(shallow) >= Search.WIN / 2 || Math.abs(deep) >= Search.WIN / 2) continue;
+
+			int index = phase * (ProbCut.MAX_DEPTH + 1) + depth;
+			counts[index]++;
+			sumShallow[index] += shallow;
+			sumDeep[index] += deep;
+			sumShallowSquared[index] += (double) shallow * shallow;
+			sumDeepSquared[index] += (double) deep * deep;
+			sumProduct[index] += (double) shallow * deep;
+		}
+	}
+
+	/**
+	 * Fits a line for every depth of every phase with enough pairs.
+	 *
+	 * @return The parameters.
+	 */
+	public ProbCut fit()
+	{
+		ProbCut probCut = new ProbCut();
+
+		for (int phase = 0; phase < ProbCut.PHASES; phase++)
+		{
+			for (int depth = ProbCut.MIN_DEPTH; depth <= ProbCut.MAX_DEPTH; depth++)
+			{
+				int index = phase * (ProbCut.MAX_DEPTH + 1) + depth;
+				long n = counts[index];
+
+				if (n < MIN_SAMPLES) continue;
+
+				double variance = n * sumShallowSquared[index] - sumShallow[index] * sumShallow[index];
+
+				if (variance <= 0) continue;
+
+				double slope = (n * sumProduct[index] - sumShallow[index] * sumDeep[index]) / variance;
+				double intercept = (sumDeep[index] - slope * sumShallow[index]) / n;
+
+				//The sum of the squared errors, expanded so that the pairs don't have to be kept.
+				double errors = sumDeepSquared[index] - 2 * slope * sumProduct[index] - 2 * intercept * sumDeep[index] + slope * slope * sumShallowSquared[index] + 2 * slope * intercept * sumShallow[index] + n * intercept * intercept;
+				double deviation = Math.sqrt(Math.max(0, errors / (n - 2)));
+
+				probCut.set(phase, depth, slope, intercept, deviation);
+				System.out.printf("Phase %d depth %2d from %2d: %7d pairs, deep = %.3f * shallow + %7.2f, deviation %.2f%n", phase, depth, ProbCut.getShallowDepth(depth), n, slope, intercept, deviation);
+			}
+		}
+
+		return probCut;
+	}
+
+	/**
+	 * @param args The search log to read (default search.log) and the parameter file to write (default probcut.bin).
+	 * @throws IOException If a file can't be read or written.
+	 */
+	public static void main(String... args) throws IOException
+	{
+		String file = args.length > 0 ? args[0] : "search.log";
+		String output = args.length > 1 ? args[1] : "probcut.bin";
+		ProbCutFitter fitter = new ProbCutFitter();
+		long lines = 0;
+
+		try (BufferedReader reader = Files.newBufferedReader(Paths.get(file)))
+		{
+			for (String line = reader.readLine(); line != null; line = reader.readLine())
+			{
+				fitter.add(line);
+				lines++;
+			}
+		}
+
+		fitter.fit().save(Paths.get(output));
+		System.out.printf("Fitted %d searches from %s to %s%n", lines, file, output);
+	}
+}
@@ -0,0 +1,635 @@
+package com.othello.ai;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.othello.game.BitBoard;
+import com.othello.game.Team;
+import com.othello.game.Zobrist;
+import com.othello.jfr.SearchEvent;
+
+/**
+ * Finds the best move for a position with a negamax alpha-beta search. The first move of every node is searched with the
+ * full window and the rest with a null window (principal variation search) that is only widened when a move turns out to be
+ * better. The search deepens one ply at a time until it runs out of time or nodes and plays the best move from the deepest
+ * iteration that finished.
+ * <p>
+ * With more than one thread the search runs several workers over the same position that share the transposition table
+ * (lazy SMP), see {@link SearchWorker}.
+ * <p>
+ * A search can prune nodes that a shallow search says are very likely outside the window, see {@link ProbCut}. The
+ * parameters are fitted from search logs, where every search writes a line with the amount of empty slots and the score
+ * of each depth it finished.
+ * <p>
+ * While the other team is thinking the search can ponder on threads of its own, see {@link #ponder(long, long, Team)}.
+ * Pondering has no limits and only fills the transposition table, so the next search finds the positions it reached
+ * already searched.
+ *
+ * @version 1.0.0
+ */
+public class Search
+{
+	/**
+	 * The score of a won game, the difference in pieces is added on top so that bigger wins are preferred.
+	 */
+	public static final int WIN = 10000;
+
+	/**
+	 * How deep pondering searches the other team's position to guess which move it will make.
+	 */
+	static final int PREDICT_DEPTH = 8;
+
+	private Evaluation evaluation = PatternEvaluation.getDefault();
+
+	private TranspositionTable table = new TranspositionTable(16);
+
+	/**
+	 * How long a search may take in milliseconds.
+	 */
+	private long timeLimit = 1000;
+
+	/**
+	 * How many nodes a search may visit.
+	 */
+	private long nodeLimit = Long.MAX_VALUE;
+
+	private int maxDepth = 60;
+
+	/**
+	 * Positions in the book are played straight away without searching, null if there is no book.
+	 */
+	private OpeningBook openingBook;
+
+	private final EndgameSolver endgameSolver = new EndgameSolver();
+
+	/**
+	 * Searches boards that aren't 8x8.
+	 */
+	private final BoardSearch boardSearch = new BoardSearch(this);
+
+	/**
+	 * Once this many slots or fewer are empty the position is solved perfectly instead of searched.
+	 */
+	private int endgameEmpties = 20;
+
+	private EndgameSolver.Mode endgameMode = EndgameSolver.Mode.EXACT;
+
+	/**
+	 * The parameters used to prune nodes, null to search every node fully.
+	 */
+	private ProbCut probCut;
+
+	/**
+	 * Where a line is written for every search, null to not log searches.
+	 */
+	private PrintWriter log;
+
+	private SearchWorker[] workers = { new SearchWorker(this, 0) };
+
+	/**
+	 * Runs the helper workers, null when searching with a single thread.
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * The nodes searched by every worker, only updated every few thousand nodes so the workers don't fight over it.
+	 */
+	private final AtomicLong sharedNodes = new AtomicLong();
+
+	/**
+	 * How long it took to finish each depth in nanoseconds.
+	 */
+	private AtomicLongArray timeToDepth;
+
+	private long start;
+
+	private long deadline;
+
+	/**
+	 * The most nodes the current search may visit, which is the node limit unless the search is pondering.
+	 */
+	private long nodeBudget;
+
+	/**
+	 * How deep the current search may go, which is the maximum depth unless the search is guessing the other team's move.
+	 */
+	private int depthLimit;
+
+	/**
+	 * Runs the main worker while pondering, created the first time the search ponders.
+	 */
+	private ExecutorService ponderExecutor;
+
+	/**
+	 * The pondering that is running, or null.
+	 */
+	private Future<?> ponderTask;
+
+	/**
+	 * Set when pondering is stopped, pondering checks it between its searches.
+	 */
+	private boolean ponderStopped;
+
+	/**
+	 * Guards {@link #ponderStopped} so that pondering can't start a new search after it has been told to stop.
+	 */
+	private final Object ponderLock = new Object();
+
+	/**
+	 * Whether the last search was pondering, in which case the next search carries on with its transposition table entries
+	 * instead of starting a new search in the table.
+	 */
+	private boolean pondered;
+
+	private volatile boolean stopped;
+
+	public void setEvaluation(Evaluation evaluation)
+	{
+		this.evaluation = evaluation;
+	}
+
+	public Evaluation getEvaluation()
+	{
+		return evaluation;
+	}
+
+	public void setTranspositionTable(TranspositionTable table)
+	{
+		this.table = table;
+	}
+
+	public TranspositionTable getTranspositionTable()
+	{
+		return table;
+	}
+
+	public void setTimeLimit(long timeLimit)
+	{
+		this.timeLimit = timeLimit;
+	}
+
+	public long getTimeLimit()
+	{
+		return timeLimit;
+	}
+
+	public void setNodeLimit(long nodeLimit)
+	{
+		this.nodeLimit = nodeLimit;
+	}
+
+	public long getNodeLimit()
+	{
+		return nodeLimit;
+	}
+
+	public void setMaxDepth(int maxDepth)
+	{
+		this.maxDepth = maxDepth;
+	}
+
+	public int getMaxDepth()
+	{
+		return maxDepth;
+	}
+
+	public void setOpeningBook(OpeningBook openingBook)
+	{
+		this.openingBook = openingBook;
+	}
+
+	public OpeningBook getOpeningBook()
+	{
+		return openingBook;
+	}
+
+	public EndgameSolver getEndgameSolver()
+	{
+		return endgameSolver;
+	}
+
+	/**
+	 * Sets when the search hands over to the endgame solver. The solver always finishes, so the time and node limits do
+	 * not apply to it.
+	 *
+	 * @param endgameEmpties The amount of empty slots at which to start solving, 0 to never solve.
+	 */
+	public void setEndgameEmpties(int endgameEmpties)
+	{
+		this.endgameEmpties = endgameEmpties;
+	}
+
+	public int getEndgameEmpties()
+	{
+		return endgameEmpties;
+	}
+
+	public void setEndgameMode(EndgameSolver.Mode endgameMode)
+	{
+		this.endgameMode = endgameMode;
+	}
+
+	public EndgameSolver.Mode getEndgameMode()
+	{
+		return endgameMode;
+	}
+
+	/**
+	 * @param probCut The parameters used to prune nodes that are very likely outside the window, or null to search every
+	 *                node fully.
+	 */
+	public void setProbCut(ProbCut probCut)
+	{
+		this.probCut = probCut;
+	}
+
+	public ProbCut getProbCut()
+	{
+		return probCut;
+	}
+
+	/**
+	 * Logs every search that isn't answered by the book or the endgame solver. Each line holds the amount of empty slots
+	 * followed by the score of every depth the main worker finished, starting at depth 1, which is what
+	 * {@link ProbCutFitter} reads. Searches that prune give biased scores, so logs for fitting should be made without
+	 * ProbCut.
+	 *
+	 * @param log Where to write the lines, it can be shared by several searches, or null to not log.
+	 */
+	public void setLog(PrintWriter log)
+	{
+		this.log = log;
+	}
+
+	public PrintWriter getLog()
+	{
+		return log;
+	}
+
+	/**
+	 * Sets how many threads search at the same time. All of them share the transposition table.
+	 *
+	 * @param threads The amount of threads, at least 1.
+	 */
+	public void setThreads(int threads)
+	{
+		if (threads < 1)
+		{
+			throw new IllegalArgumentException("A search needs at least one thread");
+		}
+
+		stopPondering();
+
+		workers = new SearchWorker[threads];
+		for (int i = 0; i < threads; i++)
+		{
+			workers[i] = new SearchWorker(this, i);
+		}
+
+		if (pool != null)
+		{
+			pool.shutdown();
+		}
+		pool = threads > 1 ? new ForkJoinPool(threads - 1) : null;
+	}
+
+	public int getThreads()
+	{
+		return workers.length;
+	}
+
+	/**
+	 * Searches a position on a board of any size. Standard boards are searched as by {@link #search(long, long, Team)},
+	 * other sizes by a plain alpha-beta search on one thread without the book, transposition table or endgame solver, see
+	 * {@link BoardSearch}. The same time, node and depth limits apply.
+	 *
+	 * @param bitBoard The board to search, which is left as it is.
+	 * @param team The team that is moving.
+	 * @return The best move found.
+	 */
+	public SearchResult search(BitBoard bitBoard, Team team)
+	{
+		if (bitBoard.getWidth() == BitBoard.SIZE && bitBoard.getHeight() == BitBoard.SIZE)
+		{
+			return search(bitBoard.getPieces(team), bitBoard.getPieces(team == Team.BLACK ? Team.WHITE : Team.BLACK), team);
+		}
+
+		stopPondering();
+
+		return boardSearch.search(bitBoard, team);
+	}
+
+	/**
+	 * Searches the position until the time, node or depth limit is reached. The first iteration always finishes so a move
+	 * is returned even with a tiny budget. The calling thread runs the main worker and any helper workers run on the
+	 * search's fork join pool.
+	 *
+	 * @param player The pieces of the team that is moving.
+	 * @param opponent The pieces of the other team.
+	 * @param team The team that is moving, used to hash positions.
+	 * @return The best move found.
+	 */
+	public SearchResult search(long player, long opponent, Team team)
+	{
+		stopPondering();
+
+		SearchEvent event = new SearchEvent();
+		event.begin();
+
+		SearchResult result = searchPosition(player, opponent, team, false, maxDepth);
+
+		event.end();
+
+		if (event.shouldCommit())
+		{
+			event.team = team.name();
+			event.move = result.getMove() == -1 ? "pass" : BitBoard.getName(result.getMove());
+			event.score = result.getScore();
+			event.depth = result.getDepth();
+			event.nodes = result.getNodes();
+			event.threads = workers.length;
+			event.commit();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Searches on threads of the search's own until {@link #stopPondering()} or the next search, ignoring the time and node
+	 * limits. This is meant for while the other team is thinking about the position: a quick search guesses which move it
+	 * will make and then the position after that move is searched for as long as the other team takes. The results only go
+	 * into the transposition table, where the search after the other team's move finds them. If the guess was right most
+	 * of that search is already done, and if it was wrong the quick search still helps a little.
+	 * <p>
+	 * If the position after the guess is in the book or close enough to the end to be solved it is answered straight away
+	 * anyway, so the other team's position is searched instead.
+	 *
+	 * @param player The pieces of the team that is moving, which is the other team.
+	 * @param opponent The pieces of the team this search plays for.
+	 * @param team The team that is moving.
+	 */
+	public synchronized void ponder(long player, long opponent, Team team)
+	{
+		stopPondering();
+
+		//The endgame solver can't be stopped part way, so positions it would solve are not pondered.
+		if (BitBoard.getMoves(player, opponent) == 0 || Long.bitCount(~(player | opponent)) <= endgameEmpties) return;
+
+		if (ponderExecutor == null)
+		{
+			ponderExecutor = Executors.newSingleThreadExecutor(runnable ->
+			{
+				Thread thread = new Thread(runnable, "Ponder");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		synchronized (ponderLock)
+		{
+			ponderStopped = false;
+		}
+
+		ponderTask = ponderExecutor.submit(() -> runPonder(player, opponent, team));
+	}
+
+	private void runPonder(long player, long opponent, Team team)
+	{
+		if (!startPonderSearch()) return;
+
+		SearchResult guess = searchPosition(player, opponent, team, true, Math.min(maxDepth, PREDICT_DEPTH));
+
+		if (!startPonderSearch()) return;
+
+		int move = guess.getMove();
+		long flips = BitBoard.getFlips(player, opponent, move);
+		long nextPlayer = opponent & ~flips;
+		long nextOpponent = player | flips | (1L << move);
+		Team next = team == Team.BLACK ? Team.WHITE : Team.BLACK;
+
+		if (canPonder(nextPlayer, nextOpponent, next))
+		{
+			searchPosition(nextPlayer, nextOpponent, next, true, maxDepth);
+		}
+		else if (canPonder(player, opponent, team))
+		{
+			searchPosition(player, opponent, team, true, maxDepth);
+		}
+	}
+
+	/**
+	 * Gets ready for the next search of pondering.
+	 *
+	 * @return False if pondering has been stopped.
+	 */
+	private boolean startPonderSearch()
+	{
+		synchronized (ponderLock)
+		{
+			if (ponderStopped) return false;
+
+			stopped = false;
+			return true;
+		}
+	}
+
+	/**
+	 * @return Whether a position would be searched by the next search rather than answered by the book or the endgame
+	 *         solver or passed.
+	 */
+	private boolean canPonder(long player, long opponent, Team team)
+	{
+		if (BitBoard.getMoves(player, opponent) == 0 || Long.bitCount(~(player | opponent)) <= endgameEmpties) return false;
+
+		return openingBook == null || openingBook.probe(player, opponent, team) == 0;
+	}
+
+	/**
+	 * Stops pondering and waits for its threads to finish, which only takes as long as it takes them to notice. Does
+	 * nothing if the search isn't pondering.
+	 */
+	public synchronized void stopPondering()
+	{
+		if (ponderTask == null) return;
+
+		synchronized (ponderLock)
+		{
+			ponderStopped = true;
+			stopped = true;
+		}
+
+		try
+		{
+			ponderTask.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e)
+		{
+			throw new IllegalStateException("Pondering failed", e.getCause());
+		}
+		finally
+		{
+			ponderTask = null;
+		}
+	}
+
+	public synchronized boolean isPondering()
+	{
+		return ponderTask != null && !ponderTask.isDone();
+	}
+
+	private SearchResult searchPosition(long player, long opponent, Team team, boolean ponder, int depthLimit)
+	{
+		this.depthLimit = depthLimit;
+		start = System.nanoTime();
+		deadline = timeLimit == Long.MAX_VALUE || ponder ? Long.MAX_VALUE : start + timeLimit * 1000000;
+		nodeBudget = ponder ? Long.MAX_VALUE : nodeLimit;
+		sharedNodes.set(0);
+		if (!ponder) stopped = false;
+		timeToDepth = new AtomicLongArray(61);
+
+		long moves = BitBoard.getMoves(player, opponent);
+
+		if (moves == 0)
+		{
+			return new SearchResult(-1, 0, 0, 0, System.nanoTime() - start);
+		}
+
+		if (openingBook != null)
+		{
+			long entry = openingBook.probe(player, opponent, team);
+
+			if (entry != 0 && (moves & (1L << OpeningBook.getMove(entry))) != 0)
+			{
+				return new SearchResult(OpeningBook.getMove(entry), OpeningBook.getScore(entry), 0, 0, System.nanoTime() - start);
+			}
+		}
+
+		if (Long.bitCount(~(player | opponent)) <= endgameEmpties)
+		{
+			SearchResult result = endgameSolver.solve(player, opponent, team.ordinal(), endgameMode);
+
+			return new SearchResult(result.getMove(), toScore(result.getScore()), result.getDepth(), result.getNodes(), result.getNanos());
+		}
+
+		if (ponder || !pondered) table.newSearch();
+		pondered = ponder;
+
+		int color = team.ordinal();
+		long hash = Zobrist.hash(team == Team.BLACK ? player : opponent, team == Team.BLACK ? opponent : player, team);
+
+		List<ForkJoinTask<?>> helpers = new ArrayList<>();
+		for (int i = 1; i < workers.length; i++)
+		{
+			SearchWorker worker = workers[i];
+			helpers.add(pool.submit(() -> worker.run(player, opponent, color, hash, moves)));
+		}
+
+		workers[0].run(player, opponent, color, hash, moves);
+		stopped = true;
+		helpers.forEach(ForkJoinTask::join);
+
+		//Use the worker that got the deepest, the main worker wins ties.
+		SearchWorker best = workers[0];
+		long nodes = 0;
+
+		for (SearchWorker worker : workers)
+		{
+			nodes += worker.getNodes();
+
+			if (worker.getCompletedDepth() > best.getCompletedDepth())
+			{
+				best = worker;
+			}
+		}
+
+		if (log != null && !ponder)
+		{
+			StringBuilder line = new StringBuilder().append(Long.bitCount(~(player | opponent)));
+
+			for (int depth = 1; depth <= workers[0].getCompletedDepth(); depth++)
+			{
+				line.append(' ').append(workers[0].getScore(depth));
+			}
+
+			log.println(line);
+		}
+
+		long[] times = new long[best.getCompletedDepth() + 1];
+		for (int depth = 1; depth < times.length; depth++)
+		{
+			times[depth] = timeToDepth.get(depth);
+		}
+
+		return new SearchResult(best.getBestMove(), best.getBestScore(), best.getCompletedDepth(), nodes, System.nanoTime() - start, times);
+	}
+
+	/**
+	 * @return How deep the current search may go.
+	 */
+	int getDepthLimit()
+	{
+		return depthLimit;
+	}
+
+	boolean isStopped()
+	{
+		return stopped;
+	}
+
+	/**
+	 * Called by the workers every few thousand nodes, stops the search if it has used up its budget.
+	 *
+	 * @param nodes The nodes the worker searched since it last checked.
+	 */
+	void checkLimits(int nodes)
+	{
+		if (sharedNodes.addAndGet(nodes) >= nodeBudget || System.nanoTime() > deadline)
+		{
+			stopped = true;
+		}
+	}
+
+	/**
+	 * Records the first time any worker finishes a depth.
+	 *
+	 * @param depth The depth that was finished.
+	 */
+	void onDepthCompleted(int depth)
+	{
+		timeToDepth.compareAndSet(depth, 0, System.nanoTime() - start);
+	}
+
+	/**
+	 * @param player The pieces of the team that is moving.
+	 * @param opponent The pieces of the other team.
+	 * @return The score of a finished game.
+	 */
+	static int getFinalScore(long player, long opponent)
+	{
+		return toScore(EndgameSolver.getFinalScore(player, opponent));
+	}
+
+	/**
+	 * Converts a final difference in pieces into a search score.
+	 *
+	 * @param difference The difference in pieces at the end of the game.
+	 * @return A score above every evaluation for a win and below every evaluation for a loss.
+	 */
+	static int toScore(int difference)
+	{
+		return difference > 0 ? WIN + difference : difference < 0 ? -WIN + difference : 0;
+	}
+}
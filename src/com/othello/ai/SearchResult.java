@@ -0,0 +1,107 @@
+package com.othello.ai;
+
+import java.util.Arrays;
+
+import com.othello.game.BitBoard;
+
+/**
+ * The outcome of a search, including how deep it got and how fast it went.
+ *
+ * @version 1.0.0
+ */
+public class SearchResult
+{
+	/**
+	 * The slot to place on, or -1 if the team has to pass.
+	 */
+	private final int move;
+
+	private final int score;
+
+	/**
+	 * The deepest iteration that was fully searched.
+	 */
+	private final int depth;
+
+	private final long nodes;
+
+	private final long nanos;
+
+	/**
+	 * The time in nanoseconds it took to finish each depth, indexed by depth.
+	 */
+	private final long[] timeToDepth;
+
+	/**
+	 * @param timeToDepth The time each depth was finished, indexed by depth and holding at least every depth up to depth.
+	 */
+	public SearchResult(int move, int score, int depth, long nodes, long nanos, long[] timeToDepth)
+	{
+		if (timeToDepth.length <= depth)
+		{
+			throw new IllegalArgumentException("No time for depth " + depth);
+		}
+
+		this.move = move;
+		this.score = score;
+		this.depth = depth;
+		this.nodes = nodes;
+		this.nanos = nanos;
+		this.timeToDepth = timeToDepth;
+	}
+
+	/**
+	 * A result that finished every depth at the same time, such as a solved endgame or a move from the opening book.
+	 */
+	public SearchResult(int move, int score, int depth, long nodes, long nanos)
+	{
+		this(move, score, depth, nodes, nanos, new long[depth + 1]);
+
+		Arrays.fill(timeToDepth, 1, depth + 1, nanos);
+	}
+
+	public int getMove()
+	{
+		return move;
+	}
+
+	public int getScore()
+	{
+		return score;
+	}
+
+	public int getDepth()
+	{
+		return depth;
+	}
+
+	public long getNodes()
+	{
+		return nodes;
+	}
+
+	public long getNanos()
+	{
+		return nanos;
+	}
+
+	/**
+	 * @param depth A depth up to {@link #getDepth()}, depth 0 always took no time.
+	 * @return The time in nanoseconds from the start of the search until the depth was finished.
+	 */
+	public long getTimeToDepth(int depth)
+	{
+		return timeToDepth[depth];
+	}
+
+	public long getNodesPerSecond()
+	{
+		return nanos == 0 ? 0 : (long) (nodes * 1e9 / nanos);
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("%s score %d depth %d, %d nodes in %dms (%d nodes/s)", move == -1 ? "pass" : BitBoard.getName(move), score, depth, nodes, nanos / 1000000, getNodesPerSecond());
+	}
+}
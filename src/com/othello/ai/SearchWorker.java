@@ -0,0 +1,478 @@
+package com.othello.ai;
+
+import java.util.Arrays;
+
+import com.othello.game.BitBoard;
+import com.othello.game.Symmetry;
+import com.othello.game.Team;
+import com.othello.game.Zobrist;
+
+/**
+ * One thread of a {@link Search}. Every worker runs its own iterative deepening over the same position and they only share
+ * the transposition table, so work done by one worker speeds up the others when they reach the same positions. Helper
+ * workers start at a different depth and try the root moves in a different order so that they spread out over the tree.
+ * <p>
+ * Moves are searched in the order most likely to cause a cutoff: the move from the transposition table, then the two
+ * killer moves of the ply, the last moves that caused a cutoff at that ply elsewhere in the tree, and then the rest. With
+ * plenty of depth left the rest are ordered by how few replies they leave the opponent, which is slow to work out but
+ * worth it where the subtrees are big, and further down they are ordered by the history table, which counts how often
+ * each move of each team has caused a cutoff.
+ *
+ * @version 1.0.0
+ */
+class SearchWorker
+{
+	private static final int INFINITY = Search.WIN + 100;
+
+	/**
+	 * How many nodes are searched between each check of the limits.
+	 */
+	private static final int CHECK_INTERVAL = 4096;
+
+	/**
+	 * Positions with at least this many empty slots are stored in the table in their canonical form so that the symmetries
+	 * of a position share an entry. Symmetric positions are only common close to the start of the game, later on finding
+	 * the canonical form costs more than it saves.
+	 */
+	static final int CANONICAL_EMPTIES = 50;
+
+	private static final Team[] TEAMS = Team.values();
+
+	/**
+	 * Nodes with at least this many plies left order their moves by the opponent's mobility instead of the history table.
+	 */
+	static final int MOBILITY_DEPTH = 3;
+
+	/**
+	 * The deepest ply searched, every move and at most one pass between them.
+	 */
+	private static final int MAX_PLY = 128;
+
+	private static final int HASH_MOVE_SCORE = Integer.MAX_VALUE;
+
+	private static final int KILLER_SCORE = Integer.MAX_VALUE - 2;
+
+	/**
+	 * The history table is halved whenever an entry passes this so that it stays below the killer moves.
+	 */
+	private static final int HISTORY_LIMIT = 1 << 28;
+
+	/**
+	 * Preallocated move lists, one for each ply so that the search does not allocate.
+	 */
+	private final int[][] moveLists = new int[MAX_PLY][64];
+
+	private final int[][] moveScores = new int[MAX_PLY][64];
+
+	/**
+	 * The two killer moves of each ply, the newest first.
+	 */
+	private final int[] killers = new int[MAX_PLY * 2];
+
+	/**
+	 * How much each move has caused cutoffs, indexed by the ordinal of the team times 64 plus the slot.
+	 */
+	private final int[] history = new int[2 * 64];
+
+	private final Search search;
+
+	/**
+	 * 0 for the main worker, helpers count up from 1.
+	 */
+	private final int id;
+
+	private long nodes;
+
+	private int completedDepth;
+
+	private int bestMove;
+
+	private int bestScore;
+
+	/**
+	 * The score of each depth finished in the current search.
+	 */
+	private final int[] scores = new int[61];
+
+	SearchWorker(Search search, int id)
+	{
+		this.search = search;
+		this.id = id;
+	}
+
+	long getNodes()
+	{
+		return nodes;
+	}
+
+	int getCompletedDepth()
+	{
+		return completedDepth;
+	}
+
+	int getBestMove()
+	{
+		return bestMove;
+	}
+
+	int getBestScore()
+	{
+		return bestScore;
+	}
+
+	/**
+	 * @param depth A depth that was finished.
+	 * @return The score it found.
+	 */
+	int getScore(int depth)
+	{
+		return scores[depth];
+	}
+
+	/**
+	 * Deepens the search until the search is stopped or the maximum depth is reached.
+	 *
+	 * @param player The pieces of the team that is moving.
+	 * @param opponent The pieces of the other team.
+	 * @param color The ordinal of the team that is moving.
+	 * @param hash The Zobrist hash of the position.
+	 * @param moves The valid moves of the position, there must be at least one.
+	 */
+	void run(long player, long opponent, int color, long hash, long moves)
+	{
+		Arrays.fill(killers, TranspositionTable.NO_MOVE);
+		Arrays.fill(history, 0);
+
+		//Start with the moves that leave the opponent the fewest replies, turned by the id of the worker.
+		int count = orderMoves(player, opponent, moves, color, MOBILITY_DEPTH, 0, TranspositionTable.NO_MOVE);
+		int[] order = new int[count];
+		for (int i = 0; i < count; i++)
+		{
+			order[(i + id) % count] = moveLists[0][i];
+		}
+
+		nodes = 0;
+		completedDepth = 0;
+		bestMove = order[0];
+		bestScore = 0;
+
+		int maxDepth = Math.min(search.getDepthLimit(), Long.bitCount(~(player | opponent)));
+
+		for (int depth = 1 + (id & 1); depth <= maxDepth; depth++)
+		{
+			//Older cutoffs say less about the new depth.
+			for (int i = 0; i < history.length; i++)
+			{
+				history[i] >>= 1;
+			}
+
+			int alpha = -INFINITY;
+			int best = order[0];
+			//The first iteration only scores leaves, which ignore the stop, so it always finishes.
+			boolean stoppable = depth > 1;
+
+			for (int i = 0; i < order.length; i++)
+			{
+				int square = order[i];
+				long flips = BitBoard.getFlips(player, opponent, square);
+				long nextPlayer = player | flips | (1L << square);
+				long nextOpponent = opponent & ~flips;
+				long nextHash = hash ^ Zobrist.getMoveKey(color, square, flips);
+				int score;
+
+				if (i == 0)
+				{
+					score = -negamax(nextOpponent, nextPlayer, color ^ 1, nextHash, depth - 1, 1, -INFINITY, -alpha);
+				}
+				else
+				{
+					score = -negamax(nextOpponent, nextPlayer, color ^ 1, nextHash, depth - 1, 1, -alpha - 1, -alpha);
+
+					if (score > alpha && !(stoppable && search.isStopped()))
+					{
+						score = -negamax(nextOpponent, nextPlayer, color ^ 1, nextHash, depth - 1, 1, -INFINITY, -alpha);
+					}
+				}
+
+				if (stoppable && search.isStopped()) break;
+
+				if (score > alpha)
+				{
+					alpha = score;
+					best = square;
+				}
+			}
+
+			if (stoppable && search.isStopped()) break;
+
+			bestMove = best;
+			bestScore = alpha;
+			scores[depth] = alpha;
+			completedDepth = depth;
+			store(player, opponent, color, hash, depth, alpha, TranspositionTable.EXACT, best);
+			search.onDepthCompleted(depth);
+
+			//Search the best move first in the next iteration.
+			for (int i = 0; i < order.length; i++)
+			{
+				if (order[i] == best)
+				{
+					System.arraycopy(order, 0, order, 1, i);
+					order[0] = best;
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param player The pieces of the team that is moving.
+	 * @param opponent The pieces of the other team.
+	 * @param color The ordinal of the team that is moving.
+	 * @param hash The Zobrist hash of the position.
+	 * @param depth How many more plies to search.
+	 * @param ply How many plies the position is from the root.
+	 * @param alpha The score the player is already guaranteed.
+	 * @param beta The score the opponent is already guaranteed.
+	 * @return The score of the position, clamped to the window.
+	 */
+	private int negamax(long player, long opponent, int color, long hash, int depth, int ply, int alpha, int beta)
+	{
+		if ((++nodes & (CHECK_INTERVAL - 1)) == 0)
+		{
+			search.checkLimits(CHECK_INTERVAL);
+		}
+		if (depth > 0 && search.isStopped()) return 0;
+
+		long moves = BitBoard.getMoves(player, opponent);
+
+		if (moves == 0)
+		{
+			if (BitBoard.getMoves(opponent, player) == 0)
+			{
+				return Search.getFinalScore(player, opponent);
+			}
+			return -negamax(opponent, player, color ^ 1, hash ^ Zobrist.WHITE_TO_MOVE, depth, ply + 1, -beta, -alpha);
+		}
+
+		if (depth == 0)
+		{
+			return search.getEvaluation().evaluate(player, opponent);
+		}
+
+		int hashMove = TranspositionTable.NO_MOVE;
+		long entry = probe(player, opponent, color, hash);
+
+		if (entry != 0)
+		{
+			hashMove = TranspositionTable.getMove(entry);
+
+			if (TranspositionTable.getDepth(entry) >= depth)
+			{
+				int score = TranspositionTable.getScore(entry);
+				int bound = TranspositionTable.getBound(entry);
+
+				if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score >= beta) || (bound == TranspositionTable.UPPER && score <= alpha))
+				{
+					return Math.max(alpha, Math.min(beta, score));
+				}
+			}
+		}
+
+		ProbCut probCut = search.getProbCut();
+
+		//Only null windows are pruned, the principal variation is always searched fully.
+		if (probCut != null && beta - alpha == 1 && depth >= ProbCut.MIN_DEPTH)
+		{
+			int empties = Long.bitCount(~(player | opponent));
+
+			if (probCut.has(empties, depth))
+			{
+				int shallow = ProbCut.getShallowDepth(depth);
+				int bound = probCut.getHighBound(empties, depth, beta);
+
+				if (bound < Search.WIN && negamax(player, opponent, color, hash, shallow, ply, bound - 1, bound) >= bound)
+				{
+					return beta;
+				}
+
+				bound = probCut.getLowBound(empties, depth, alpha);
+
+				if (bound > -Search.WIN && negamax(player, opponent, color, hash, shallow, ply, bound, bound + 1) <= bound)
+				{
+					return alpha;
+				}
+			}
+		}
+
+		int originalAlpha = alpha;
+		int count = orderMoves(player, opponent, moves, color, depth, ply, hashMove);
+		int[] list = moveLists[ply];
+		int bestMove = list[0];
+
+		for (int i = 0; i < count; i++)
+		{
+			int square = list[i];
+			long flips = BitBoard.getFlips(player, opponent, square);
+			long nextPlayer = player | flips | (1L << square);
+			long nextOpponent = opponent & ~flips;
+			long nextHash = hash ^ Zobrist.getMoveKey(color, square, flips);
+			int score;
+
+			if (i == 0)
+			{
+				score = -negamax(nextOpponent, nextPlayer, color ^ 1, nextHash, depth - 1, ply + 1, -beta, -alpha);
+			}
+			else
+			{
+				score = -negamax(nextOpponent, nextPlayer, color ^ 1, nextHash, depth - 1, ply + 1, -alpha - 1, -alpha);
+
+				if (score > alpha && score < beta)
+				{
+					score = -negamax(nextOpponent, nextPlayer, color ^ 1, nextHash, depth - 1, ply + 1, -beta, -alpha);
+				}
+			}
+
+			if (score > alpha)
+			{
+				alpha = score;
+				bestMove = square;
+
+				if (alpha >= beta)
+				{
+					addCutoff(color, square, depth, ply);
+					break;
+				}
+			}
+		}
+
+		if (search.isStopped()) return 0;
+
+		int bound = alpha >= beta ? TranspositionTable.LOWER : alpha > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+		store(player, opponent, color, hash, depth, alpha, bound, bestMove);
+
+		return alpha;
+	}
+
+	/**
+	 * Fills the move list for the ply in the order the moves should be searched.
+	 *
+	 * @return The amount of moves in the list.
+	 */
+	private int orderMoves(long player, long opponent, long moves, int color, int depth, int ply, int hashMove)
+	{
+		int[] list = moveLists[ply];
+		int[] scores = moveScores[ply];
+		int firstKiller = killers[ply * 2];
+		int secondKiller = killers[ply * 2 + 1];
+		int count = 0;
+
+		while (moves != 0)
+		{
+			int square = Long.numberOfTrailingZeros(moves);
+			moves &= moves - 1;
+
+			int score;
+
+			if (square == hashMove)
+			{
+				score = HASH_MOVE_SCORE;
+			}
+			else if (square == firstKiller)
+			{
+				score = KILLER_SCORE;
+			}
+			else if (square == secondKiller)
+			{
+				score = KILLER_SCORE - 1;
+			}
+			else if (depth >= MOBILITY_DEPTH)
+			{
+				long flips = BitBoard.getFlips(player, opponent, square);
+				score = -Long.bitCount(BitBoard.getMoves(opponent & ~flips, player | flips | (1L << square)));
+			}
+			else
+			{
+				score = history[color << 6 | square];
+			}
+
+			//Insertion sort, there are never many moves.
+			int i = count++;
+			while (i > 0 && scores[i - 1] < score)
+			{
+				list[i] = list[i - 1];
+				scores[i] = scores[i - 1];
+				i--;
+			}
+			list[i] = square;
+			scores[i] = score;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Remembers a move that caused a cutoff as a killer move of the ply and in the history table.
+	 */
+	private void addCutoff(int color, int square, int depth, int ply)
+	{
+		if (killers[ply * 2] != square)
+		{
+			killers[ply * 2 + 1] = killers[ply * 2];
+			killers[ply * 2] = square;
+		}
+
+		int index = color << 6 | square;
+		history[index] += depth * depth;
+
+		if (history[index] > HISTORY_LIMIT)
+		{
+			for (int i = 0; i < history.length; i++)
+			{
+				history[i] >>= 1;
+			}
+		}
+	}
+
+	/**
+	 * Looks a position up in the table, in its canonical form if it is close enough to the start of the game.
+	 *
+	 * @return The entry, with its move turned back to match the position, or 0 if the position is not in the table.
+	 */
+	private long probe(long player, long opponent, int color, long hash)
+	{
+		TranspositionTable table = search.getTranspositionTable();
+
+		if (Long.bitCount(~(player | opponent)) < CANONICAL_EMPTIES) return table.probe(hash);
+
+		long black = color == 0 ? player : opponent;
+		long white = color == 0 ? opponent : player;
+		int symmetry = Symmetry.getCanonical(black, white);
+		long entry = table.probe(Symmetry.hash(black, white, TEAMS[color], symmetry));
+		int move = TranspositionTable.getMove(entry);
+
+		if (entry == 0 || move == TranspositionTable.NO_MOVE || symmetry == Symmetry.IDENTITY) return entry;
+
+		return TranspositionTable.setMove(entry, Symmetry.transformSquare(move, Symmetry.inverse(symmetry)));
+	}
+
+	/**
+	 * Stores a position in the table, in its canonical form if it is close enough to the start of the game.
+	 */
+	private void store(long player, long opponent, int color, long hash, int depth, int score, int bound, int move)
+	{
+		TranspositionTable table = search.getTranspositionTable();
+
+		if (Long.bitCount(~(player | opponent)) < CANONICAL_EMPTIES)
+		{
+			table.store(hash, depth, score, bound, move);
+			return;
+		}
+
+		long black = color == 0 ? player : opponent;
+		long white = color == 0 ? opponent : player;
+		int symmetry = Symmetry.getCanonical(black, white);
+
+		table.store(Symmetry.hash(black, white, TEAMS[color], symmetry), depth, score, bound, move == TranspositionTable.NO_MOVE ? move : Symmetry.transformSquare(move, symmetry));
+	}
+}
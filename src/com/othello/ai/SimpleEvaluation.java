@@ -0,0 +1,35 @@
+package com.othello.ai;
+
+import com.othello.game.BitBoard;
+
+/**
+ * A small evaluation based on corners, the slots next to empty corners and mobility.
+ *
+ * @version 1.0.0
+ */
+public class SimpleEvaluation implements Evaluation
+{
+	private static final long CORNERS = 0x8100000000000081L;
+
+	/**
+	 * The diagonal neighbours of each corner. Taking one of these while the corner is empty usually gives the corner away.
+	 */
+	private static final long X_SQUARES = 0x0042000000004200L;
+
+	@Override
+	public int evaluate(long player, long opponent)
+	{
+		long empty = ~(player | opponent);
+
+		//Only count x squares that sit next to an empty corner.
+		long emptyCorners = empty & CORNERS;
+		long dangerous = X_SQUARES & (((emptyCorners & 0x0000000000000081L) << 9 | (emptyCorners & 0x0000000000000081L) << 7 | (emptyCorners & 0x8100000000000000L) >>> 9 | (emptyCorners & 0x8100000000000000L) >>> 7));
+
+		int corners = Long.bitCount(player & CORNERS) - Long.bitCount(opponent & CORNERS);
+		int xSquares = Long.bitCount(player & dangerous) - Long.bitCount(opponent & dangerous);
+		int mobility = Long.bitCount(BitBoard.getMoves(player, opponent)) - Long.bitCount(BitBoard.getMoves(opponent, player));
+		int discs = Long.bitCount(player) - Long.bitCount(opponent);
+
+		return corners * 100 - xSquares * 40 + mobility * 15 + (Long.bitCount(empty) < 16 ? discs * 4 : 0);
+	}
+}
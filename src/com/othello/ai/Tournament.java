@@ -0,0 +1,375 @@
+package com.othello.ai;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.othello.game.BitBoard;
+import com.othello.game.Board;
+import com.othello.game.BoardFactory;
+import com.othello.game.Team;
+import com.othello.record.GameWriter;
+
+/**
+ * Plays two AI configurations against each other without a window to find out which one is stronger. Every opening is
+ * played twice with the configurations swapping sides, games run on every core at once, and the match stops as soon as a
+ * sequential probability ratio test (SPRT) can tell whether the first configuration is at least {@code elo1} stronger or at
+ * most {@code elo0} stronger.
+ *
+ * @version 1.0.0
+ */
+public class Tournament
+{
+	/**
+	 * How much of a game each result starts with when estimating the rates for the test.
+	 */
+	private static final double PRIOR = 0.5;
+
+	private final Supplier<Search> first;
+
+	private final Supplier<Search> second;
+
+	private List<Board> openings = BoardFactory.createOpeningBoards(4);
+
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	private int maxGames = 20000;
+
+	private double elo0 = 0;
+
+	private double elo1 = 10;
+
+	private double alpha = 0.05;
+
+	private double beta = 0.05;
+
+	/**
+	 * Where every game is written, or null.
+	 */
+	private GameWriter record;
+
+	private int wins;
+
+	private int draws;
+
+	private int losses;
+
+	private volatile boolean finished;
+
+	/**
+	 * @param first Creates the configuration being tested, called once for each thread.
+	 * @param second Creates the configuration it is tested against, called once for each thread.
+	 */
+	public Tournament(Supplier<Search> first, Supplier<Search> second)
+	{
+		this.first = first;
+		this.second = second;
+	}
+
+	/**
+	 * @param openings The positions games start from, for example from {@link BoardFactory#createOpeningBoards(int)}.
+	 */
+	public void setOpenings(List<Board> openings)
+	{
+		this.openings = openings;
+	}
+
+	/**
+	 * @param record Where every game played is written, including the moves of its opening, or null to not write games.
+	 */
+	public void setRecord(GameWriter record)
+	{
+		this.record = record;
+	}
+
+	public void setThreads(int threads)
+	{
+		this.threads = threads;
+	}
+
+	/**
+	 * @param maxGames The most games to play if the test does not finish before then.
+	 */
+	public void setMaxGames(int maxGames)
+	{
+		this.maxGames = maxGames;
+	}
+
+	/**
+	 * Sets the hypotheses and error rates of the test.
+	 *
+	 * @param elo0 The difference in Elo of the null hypothesis.
+	 * @param elo1 The difference in Elo of the alternative hypothesis.
+	 * @param alpha The chance of accepting the alternative when the null hypothesis is true.
+	 * @param beta The chance of accepting the null hypothesis when the alternative is true.
+	 */
+	public void setBounds(double elo0, double elo1, double alpha, double beta)
+	{
+		this.elo0 = elo0;
+		this.elo1 = elo1;
+		this.alpha = alpha;
+		this.beta = beta;
+	}
+
+	/**
+	 * Plays games until the test finishes or the game limit is reached, printing the standing as it goes.
+	 *
+	 * @return A summary of the match.
+	 * @throws InterruptedException If the thread is interrupted while waiting for the games.
+	 */
+	public String run() throws InterruptedException
+	{
+		List<long[]> positions = new ArrayList<>();
+		List<int[]> openingMoves = new ArrayList<>();
+		for (Board board : openings)
+		{
+			int[] moves = new int[board.getMoveCount()];
+			for (int i = 0; i < moves.length; i++)
+			{
+				moves[i] = board.getMove(i);
+			}
+
+			positions.add(new long[] { board.getBitBoard().getPieces(Team.BLACK), board.getBitBoard().getPieces(Team.WHITE), board.getTurn().ordinal(), board.getStartingTurn().ordinal() });
+			openingMoves.add(moves);
+		}
+
+		long start = System.nanoTime();
+		AtomicInteger next = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+		for (int i = 0; i < threads; i++)
+		{
+			executor.execute(() ->
+			{
+				Search firstSearch = first.get();
+				Search secondSearch = second.get();
+				int[] moves = new int[BitBoard.SIZE * BitBoard.SIZE];
+
+				for (int game = next.getAndIncrement(); game < maxGames && !finished; game = next.getAndIncrement())
+				{
+					int opening = (game / 2) % positions.size();
+					int[] played = openingMoves.get(opening);
+					System.arraycopy(played, 0, moves, 0, played.length);
+
+					//Games only count as independent samples if nothing is carried over from the game before.
+					clearTables(firstSearch);
+					clearTables(secondSearch);
+
+					//Each opening is played twice with the first configuration taking each side once.
+					int firstColor = game & 1;
+					int score = play(positions.get(opening), firstColor, firstSearch, secondSearch, moves, played.length);
+
+					record(score, start);
+				}
+			});
+		}
+
+		executor.shutdown();
+		executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+
+		return getStanding(start);
+	}
+
+	private static void clearTables(Search search)
+	{
+		search.getTranspositionTable().clear();
+		search.getEndgameSolver().getTranspositionTable().clear();
+	}
+
+	/**
+	 * Plays one game, and writes it if games are being written.
+	 *
+	 * @param played The moves of the opening, the moves of the game are added after them.
+	 * @param count The amount of moves in the opening.
+	 * @return 1 if the first configuration won, 0 for a draw and -1 if it lost.
+	 */
+	private int play(long[] position, int firstColor, Search firstSearch, Search secondSearch, int[] played, int count)
+	{
+		long[] pieces = { position[0], position[1] };
+		int turn = (int) position[2];
+
+		while (true)
+		{
+			long player = pieces[turn];
+			long opponent = pieces[turn ^ 1];
+			long moves = BitBoard.getMoves(player, opponent);
+
+			if (moves == 0)
+			{
+				if (BitBoard.getMoves(opponent, player) == 0) break;
+
+				turn ^= 1;
+				continue;
+			}
+
+			Search search = turn == firstColor ? firstSearch : secondSearch;
+			int square = search.search(player, opponent, Team.values()[turn]).getMove();
+			long flips = BitBoard.getFlips(player, opponent, square);
+
+			pieces[turn] = player | flips | (1L << square);
+			pieces[turn ^ 1] = opponent & ~flips;
+			turn ^= 1;
+			played[count++] = square;
+		}
+
+		if (record != null)
+		{
+			try
+			{
+				record.write(BitBoard.SIZE, BitBoard.SIZE, Team.values()[(int) position[3]], played, count, true, Long.bitCount(pieces[Team.BLACK.ordinal()]) - Long.bitCount(pieces[Team.WHITE.ordinal()]), "tournament first=" + Team.values()[firstColor].name().toLowerCase());
+			}
+			catch (IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		return Integer.signum(Long.bitCount(pieces[firstColor]) - Long.bitCount(pieces[firstColor ^ 1]));
+	}
+
+	private synchronized void record(int score, long start)
+	{
+		if (finished) return;
+
+		if (score > 0) wins++;
+		else if (score < 0) losses++;
+		else draws++;
+
+		double llr = getLogLikelihoodRatio();
+
+		if (llr <= Math.log(beta / (1 - alpha)) || llr >= Math.log((1 - beta) / alpha))
+		{
+			finished = true;
+		}
+
+		if ((wins + draws + losses) % 100 == 0 || finished)
+		{
+			System.out.println(getStanding(start));
+		}
+	}
+
+	/**
+	 * The log likelihood ratio of the two hypotheses, using the normal approximation of the win, draw and loss rates so far.
+	 * The rates start from a prior of {@value #PRIOR} of a game of each result, so a one sided match still has a variance and
+	 * can finish early.
+	 */
+	private synchronized double getLogLikelihoodRatio()
+	{
+		int games = wins + draws + losses;
+
+		if (games == 0) return 0;
+
+		double total = games + 3 * PRIOR;
+		double score = (wins + PRIOR + (draws + PRIOR) / 2) / total;
+		double variance = ((wins + PRIOR) * Math.pow(1 - score, 2) + (draws + PRIOR) * Math.pow(0.5 - score, 2) + (losses + PRIOR) * Math.pow(score, 2)) / total;
+		double score0 = getExpectedScore(elo0);
+		double score1 = getExpectedScore(elo1);
+
+		return games * (score1 - score0) * (2 * score - score0 - score1) / (2 * variance);
+	}
+
+	private static double getExpectedScore(double elo)
+	{
+		return 1 / (1 + Math.pow(10, -elo / 400));
+	}
+
+	private static double getElo(double score)
+	{
+		return -400 * Math.log10(1 / score - 1);
+	}
+
+	private synchronized String getStanding(long start)
+	{
+		int games = wins + draws + losses;
+		double hours = (System.nanoTime() - start) / 3.6e12;
+
+		if (games == 0) return "No games played";
+
+		double score = (wins + draws / 2.0) / games;
+		double deviation = Math.sqrt((wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2) + losses * Math.pow(score, 2)) / games / games);
+		double low = Math.max(1e-6, score - 1.96 * deviation);
+		double high = Math.min(1 - 1e-6, score + 1.96 * deviation);
+		double clamped = Math.max(1e-6, Math.min(1 - 1e-6, score));
+		double llr = getLogLikelihoodRatio();
+		double lower = Math.log(beta / (1 - alpha));
+		double upper = Math.log((1 - beta) / alpha);
+		String result = llr >= upper ? "H1 accepted" : llr <= lower ? "H0 accepted" : "running";
+
+		return String.format("Games %d (+%d =%d -%d), Elo %.1f [%.1f, %.1f], LLR %.2f (%.2f, %.2f) [%.0f, %.0f] %s, %.0f games/hour", games, wins, draws, losses, getElo(clamped), getElo(low), getElo(high), llr, lower, upper, elo0, elo1, result, games / hours);
+	}
+
+	/**
+	 * Tests the pattern evaluation against the simple one. If {@code -Dothello.probcut} names a file of {@link ProbCut}
+	 * parameters both sides use the pattern evaluation instead and only the first prunes with them. If
+	 * {@code -Dothello.searchlog} names a file every search is logged to it for {@link ProbCutFitter}.
+	 *
+	 * @param args How many nodes each move may search (default 20000), the most games to play (default 20000), how many
+	 *             moves deep the openings are (default 4) and a file to write the games to (optional).
+	 * @throws InterruptedException If the thread is interrupted.
+	 * @throws IOException If the games or the log can't be written, or the parameters can't be read.
+	 */
+	public static void main(String... args) throws InterruptedException, IOException
+	{
+		long nodes = args.length > 0 ? Long.parseLong(args[0]) : 20000;
+		int games = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+		int plies = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+		ProbCut probCut = System.getProperty("othello.probcut") != null ? ProbCut.load(Paths.get(System.getProperty("othello.probcut"))) : null;
+		PrintWriter log = System.getProperty("othello.searchlog") != null ? new PrintWriter(Files.newBufferedWriter(Paths.get(System.getProperty("othello.searchlog")))) : null;
+
+		Tournament tournament;
+		if (probCut != null)
+		{
+			tournament = new Tournament(() -> createSearch(nodes, PatternEvaluation.getDefault(), probCut, log), () -> createSearch(nodes, PatternEvaluation.getDefault(), null, log));
+		}
+		else
+		{
+			tournament = new Tournament(() -> createSearch(nodes, PatternEvaluation.getDefault(), null, log), () -> createSearch(nodes, new SimpleEvaluation(), null, log));
+		}
+		tournament.setMaxGames(games);
+		tournament.setOpenings(BoardFactory.createOpeningBoards(plies));
+
+		try
+		{
+			if (args.length > 3)
+			{
+				try (GameWriter record = new GameWriter(Paths.get(args[3])))
+				{
+					tournament.setRecord(record);
+					System.out.println(tournament.run());
+				}
+			}
+			else
+			{
+				System.out.println(tournament.run());
+			}
+		}
+		finally
+		{
+			if (log != null) log.close();
+		}
+	}
+
+	private static Search createSearch(long nodes, Evaluation evaluation, ProbCut probCut, PrintWriter log)
+	{
+		Search search = new Search();
+		search.setEvaluation(evaluation);
+		search.setTimeLimit(Long.MAX_VALUE);
+		search.setNodeLimit(nodes);
+		search.setEndgameEmpties(12);
+		search.setTranspositionTable(new TranspositionTable(4));
+		search.getEndgameSolver().setTranspositionTable(new TranspositionTable(4));
+		search.setProbCut(probCut);
+		search.setLog(log);
+
+		return search;
+	}
+}
@@ -0,0 +1,166 @@
+package com.othello.ai;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size hash table of searched positions. Every bucket has two entries: the first keeps whichever position was
+ * searched the deepest and the second is always replaced, so deep results survive while recent shallow ones still get
+ * stored. Entries live in a single long array, two longs per entry, so the memory used is exactly what was asked for and
+ * nothing is allocated while searching.
+ * <p>
+ * The key of each entry is stored xored with its data. A read that races with a write from another thread will not match
+ * the key and is treated as a miss instead of returning data from a different position.
+ *
+ * @version 1.0.0
+ */
+public class TranspositionTable
+{
+	public static final int EXACT = 0;
+	public static final int LOWER = 1;
+	public static final int UPPER = 2;
+
+	/**
+	 * Returned by {@link #getMove(long)} when an entry has no best move.
+	 */
+	public static final int NO_MOVE = -1;
+
+	/**
+	 * Two entries of two longs each.
+	 */
+	private static final int BUCKET_LONGS = 4;
+
+	private static final int BUCKET_BYTES = BUCKET_LONGS * Long.BYTES;
+
+	/**
+	 * Set on every stored entry so that stored data is never 0, which is what a miss returns.
+	 */
+	private static final long VALID = 1L << 48;
+
+	private final long[] table;
+
+	private final long buckets;
+
+	/**
+	 * Entries from an older search are replaced even if they are deeper.
+	 */
+	private int age;
+
+	/**
+	 * @param megabytes The size of the table in megabytes.
+	 */
+	public TranspositionTable(int megabytes)
+	{
+		long bytes = (long) megabytes * 1024 * 1024;
+		long buckets = Math.max(1, Math.min(bytes / BUCKET_BYTES, Integer.MAX_VALUE / BUCKET_LONGS));
+
+		this.buckets = buckets;
+		this.table = new long[(int) buckets * BUCKET_LONGS];
+	}
+
+	/**
+	 * @return The size of the table in bytes.
+	 */
+	public long getSize()
+	{
+		return (long) table.length * Long.BYTES;
+	}
+
+	/**
+	 * Marks the start of a new search so entries from the last one can be replaced.
+	 */
+	public void newSearch()
+	{
+		age = (age + 1) & 0xFF;
+	}
+
+	public void clear()
+	{
+		Arrays.fill(table, 0);
+	}
+
+	private int getIndex(long key)
+	{
+		return (int) (((key >>> 32) * buckets) >>> 32) * BUCKET_LONGS;
+	}
+
+	/**
+	 * @param key The hash of the position.
+	 * @return The data stored for the position or 0 if it is not in the table.
+	 */
+	public long probe(long key)
+	{
+		int index = getIndex(key);
+
+		long data = table[index + 1];
+		if ((table[index] ^ data) == key) return data;
+
+		data = table[index + 3];
+		if ((table[index + 2] ^ data) == key) return data;
+
+		return 0;
+	}
+
+	/**
+	 * Stores the result of searching a position.
+	 *
+	 * @param key The hash of the position.
+	 * @param depth How deep the position was searched.
+	 * @param score The score found.
+	 * @param bound Whether the score is {@link #EXACT}, a {@link #LOWER} bound or an {@link #UPPER} bound.
+	 * @param move The best move found or {@link #NO_MOVE}.
+	 */
+	public void store(long key, int depth, int score, int bound, int move)
+	{
+		int index = getIndex(key);
+		long data = (score & 0xFFFFL) | ((long) depth & 0xFF) << 16 | ((long) bound & 0x3) << 24 | ((long) (move + 1) & 0x7F) << 26 | ((long) age) << 33 | VALID;
+
+		long previous = table[index + 1];
+		boolean sameKey = (table[index] ^ previous) == key;
+
+		if (sameKey || previous == 0 || getAge(previous) != age || depth >= getDepth(previous))
+		{
+			table[index] = key ^ data;
+			table[index + 1] = data;
+		}
+		else
+		{
+			table[index + 2] = key ^ data;
+			table[index + 3] = data;
+		}
+	}
+
+	public static int getScore(long data)
+	{
+		return (short) data;
+	}
+
+	public static int getDepth(long data)
+	{
+		return (int) (data >>> 16) & 0xFF;
+	}
+
+	public static int getBound(long data)
+	{
+		return (int) (data >>> 24) & 0x3;
+	}
+
+	public static int getMove(long data)
+	{
+		return ((int) (data >>> 26) & 0x7F) - 1;
+	}
+
+	/**
+	 * @param data Data returned by {@link #probe(long)}.
+	 * @param move The move to put in its place.
+	 * @return The same data with a different best move.
+	 */
+	public static long setMove(long data, int move)
+	{
+		return data & ~(0x7FL << 26) | ((long) (move + 1) & 0x7F) << 26;
+	}
+
+	private static int getAge(long data)
+	{
+		return (int) (data >>> 33) & 0xFF;
+	}
+}
@@ -1,10 +1,15 @@
 package com.othello.animation;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * This class will call all of the registered animations when the should be called. It has the ability to run them
  * concurrently or run one at a time depending on what the animation is for.
+ * <p>
+ * Animations are run once per frame at the target frame rate and the thread sleeps between frames. When there is nothing
+ * to animate the thread is parked until {@link #animate(Animation)} is called, so an idle game uses no CPU.
  * 
  * @author Derek King
  * @author Ethan Chase
@@ -24,7 +29,37 @@ public class AnimationManager extends Thread
      * This is used to prevent concurrent modification exceptions.
      */
     private final List<Animation> animationRemovalQueue = new ArrayList<>();
-    
+
+    /**
+     * How long each frame lasts in nanoseconds.
+     */
+    private volatile long frameNanos = TimeUnit.SECONDS.toNanos(1) / 60;
+
+    public AnimationManager()
+    {
+        super("Animation");
+        setDaemon(true);
+    }
+
+    /**
+     * @param fps How many times a second the animations are run, 60 by default. At least 1.
+     * @throws IllegalArgumentException If fps is less than 1.
+     */
+    public void setTargetFps(int fps)
+    {
+        if (fps < 1)
+        {
+            throw new IllegalArgumentException("Can not animate at " + fps + " fps");
+        }
+
+        frameNanos = TimeUnit.SECONDS.toNanos(1) / fps;
+    }
+
+    public int getTargetFps()
+    {
+        return (int) (TimeUnit.SECONDS.toNanos(1) / frameNanos);
+    }
+
     /**
      * The main method of this class. It is always running and will call animations as needed.
      */
@@ -33,6 +68,9 @@ public class AnimationManager extends Thread
     {
         while (true)
         {
+            long frameStart = System.nanoTime();
+            boolean idle;
+
             synchronized (this)
             {
                 animations.addAll(animationQueue);
@@ -42,6 +80,19 @@ public class AnimationManager extends Thread
                 animationRemovalQueue.clear();
 
                 animations.forEach(Animation::run);
+                idle = animations.isEmpty() && animationQueue.isEmpty();
+            }
+
+            if (idle)
+            {
+                //Animate unparks the thread, if it was called since the check above the permit makes this return straight away.
+                LockSupport.park(this);
+                continue;
+            }
+
+            for (long remaining = frameStart + frameNanos - System.nanoTime(); remaining > 0; remaining = frameStart + frameNanos - System.nanoTime())
+            {
+                LockSupport.parkNanos(this, remaining);
             }
         }
     }
@@ -54,10 +105,14 @@ public class AnimationManager extends Thread
      */
     public synchronized void animate(Animation animation)
     {
-    	if (!animationQueue.contains(animation))
+    	//An animation that stopped and started again in the same frame must not be removed when the frame starts.
+    	animationRemovalQueue.remove(animation);
+
+    	if (!animations.contains(animation) && !animationQueue.contains(animation))
     	{
     		animationQueue.add(animation);
     	}
+    	LockSupport.unpark(this);
     }
 
     /**
@@ -0,0 +1,325 @@
+package com.othello.animation.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.othello.animation.Animation;
+import com.othello.animation.AnimationManager;
+import com.othello.game.Team;
+import com.othello.jfr.AnimationEvent;
+
+/**
+ * Moves any amount of pieces at once. Every move is stored as a row of primitive arrays and all of them are advanced in one
+ * loop each frame, so animating a move allocates nothing apart from the arrays growing the first time the board gets
+ * busy.
+ * <p>
+ * Moves are queued for a slot. The moves of one slot play one after the other, each starting once the one before it is
+ * done, while moves of different slots play at the same time.
+ *
+ * @version 1.0.0
+ */
+public class Timeline extends Animation
+{
+	private static final Team[] TEAMS = Team.values();
+
+	private final AnimationManager manager;
+
+	/**
+	 * Called after every frame, for example to repaint.
+	 */
+	private FrameListener frameListener;
+
+	private int size;
+
+	private int[] slots = new int[16];
+
+	private double[] startX = new double[16];
+
+	private double[] startY = new double[16];
+
+	private double[] endX = new double[16];
+
+	private double[] endY = new double[16];
+
+	/**
+	 * Where each piece is drawn, updated every frame.
+	 */
+	private double[] x = new double[16];
+
+	private double[] y = new double[16];
+
+	/**
+	 * The time each piece starts being drawn, which is when the move before it on the same slot ends.
+	 */
+	private long[] visible = new long[16];
+
+	/**
+	 * The time each piece starts moving.
+	 */
+	private long[] start = new long[16];
+
+	private long[] duration = new long[16];
+
+	private byte[] teams = new byte[16];
+
+	/**
+	 * Called when each move is done, or null.
+	 */
+	private Runnable[] hooks = new Runnable[16];
+
+	/**
+	 * The amount of moves queued for each slot.
+	 */
+	private int[] queued = new int[64];
+
+	/**
+	 * The time the last move queued for each slot ends.
+	 */
+	private long[] slotEnd = new long[64];
+
+	/**
+	 * The hooks of the moves finished in the current frame. They are called once the timeline is unlocked so that they can
+	 * queue more moves.
+	 */
+	private Runnable[] finished = new Runnable[16];
+
+	private boolean running;
+
+	/**
+	 * Recorded from when the timeline starts running until it runs out of moves.
+	 */
+	private AnimationEvent event;
+
+	public Timeline(AnimationManager manager)
+	{
+		this.manager = manager;
+	}
+
+	public void setFrameListener(FrameListener frameListener)
+	{
+		this.frameListener = frameListener;
+	}
+
+	/**
+	 * Queues a move for a piece.
+	 *
+	 * @param slot The slot the piece belongs to.
+	 * @param fromX Where the piece starts.
+	 * @param fromY Where the piece starts.
+	 * @param toX Where the piece ends.
+	 * @param toY Where the piece ends.
+	 * @param delay How many milliseconds the piece waits at the start before moving.
+	 * @param duration How many milliseconds the piece takes to move.
+	 * @param team The team the piece is drawn as.
+	 * @param hook Called when the move is done, or null.
+	 */
+	public void add(int slot, double fromX, double fromY, double toX, double toY, long delay, long duration, Team team, Runnable hook)
+	{
+		synchronized (this)
+		{
+			long now = System.nanoTime();
+
+			if (size == slots.length) grow();
+			if (slot >= queued.length)
+			{
+				queued = Arrays.copyOf(queued, Math.max(slot + 1, queued.length * 2));
+				slotEnd = Arrays.copyOf(slotEnd, queued.length);
+			}
+
+			long begin = queued[slot] > 0 ? Math.max(now, slotEnd[slot]) : now;
+			int i = size++;
+
+			slots[i] = slot;
+			startX[i] = fromX;
+			startY[i] = fromY;
+			endX[i] = toX;
+			endY[i] = toY;
+			x[i] = fromX;
+			y[i] = fromY;
+			visible[i] = begin;
+			start[i] = begin + TimeUnit.MILLISECONDS.toNanos(delay);
+			this.duration[i] = TimeUnit.MILLISECONDS.toNanos(duration);
+			teams[i] = (byte) team.ordinal();
+			hooks[i] = hook;
+
+			queued[slot]++;
+			slotEnd[slot] = start[i] + this.duration[i];
+
+			if (event != null) event.pieces++;
+			if (running) return;
+
+			running = true;
+			event = new AnimationEvent();
+			event.pieces = 1;
+			event.begin();
+		}
+
+		manager.animate(this);
+	}
+
+	/**
+	 * @param slot A slot of the board.
+	 * @return Whether a piece of the slot is moving or waiting to move.
+	 */
+	public synchronized boolean isAnimating(int slot)
+	{
+		return slot < queued.length && queued[slot] > 0;
+	}
+
+	/**
+	 * The pieces are read by index while holding the lock of the timeline, for example:
+	 *
+	 * <pre>
+	 * synchronized (timeline)
+	 * {
+	 * 	for (int i = 0; i &lt; timeline.getSize(); i++)
+	 * 	{
+	 * 		if (timeline.isVisible(i)) draw(timeline.getX(i), timeline.getY(i), timeline.getTeam(i));
+	 * 	}
+	 * }
+	 * </pre>
+	 *
+	 * @return The amount of moves queued.
+	 */
+	public synchronized int getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * @param i The index of a move.
+	 * @return Whether the piece should be drawn, which is false while the moves before it on the same slot are playing.
+	 */
+	public synchronized boolean isVisible(int i)
+	{
+		return System.nanoTime() - visible[i] >= 0;
+	}
+
+	public synchronized double getX(int i)
+	{
+		return x[i];
+	}
+
+	public synchronized double getY(int i)
+	{
+		return y[i];
+	}
+
+	public synchronized Team getTeam(int i)
+	{
+		return TEAMS[teams[i]];
+	}
+
+	/**
+	 * Advances every move, removes the ones that are done and calls their hooks.
+	 */
+	@Override
+	public void run()
+	{
+		int done = 0;
+
+		synchronized (this)
+		{
+			long now = System.nanoTime();
+
+			for (int i = 0; i < size; i++)
+			{
+				if (now - visible[i] < 0) continue;
+
+				double progress = Math.max(0, Math.min(1, (now - start[i]) / (double) duration[i]));
+				double newX = startX[i] + (endX[i] - startX[i]) * progress;
+				double newY = startY[i] + (endY[i] - startY[i]) * progress;
+
+				if (frameListener != null) frameListener.onPieceMoved(x[i], y[i], newX, newY);
+
+				x[i] = newX;
+				y[i] = newY;
+
+				if (now - start[i] < duration[i]) continue;
+
+				if (hooks[i] != null)
+				{
+					if (done == finished.length) finished = Arrays.copyOf(finished, done * 2);
+					finished[done++] = hooks[i];
+				}
+
+				queued[slots[i]]--;
+				remove(i--);
+			}
+
+			event.frames++;
+
+			if (size == 0)
+			{
+				running = false;
+				manager.cancelAnimation(this);
+				event.commit();
+				event = null;
+			}
+		}
+
+		for (int i = 0; i < done; i++)
+		{
+			finished[i].run();
+			finished[i] = null;
+		}
+	}
+
+	/**
+	 * Removes a move by moving the last one into its place.
+	 */
+	private void remove(int i)
+	{
+		int last = --size;
+
+		slots[i] = slots[last];
+		startX[i] = startX[last];
+		startY[i] = startY[last];
+		endX[i] = endX[last];
+		endY[i] = endY[last];
+		x[i] = x[last];
+		y[i] = y[last];
+		visible[i] = visible[last];
+		start[i] = start[last];
+		duration[i] = duration[last];
+		teams[i] = teams[last];
+		hooks[i] = hooks[last];
+		hooks[last] = null;
+	}
+
+	private void grow()
+	{
+		int length = slots.length * 2;
+
+		slots = Arrays.copyOf(slots, length);
+		startX = Arrays.copyOf(startX, length);
+		startY = Arrays.copyOf(startY, length);
+		endX = Arrays.copyOf(endX, length);
+		endY = Arrays.copyOf(endY, length);
+		x = Arrays.copyOf(x, length);
+		y = Arrays.copyOf(y, length);
+		visible = Arrays.copyOf(visible, length);
+		start = Arrays.copyOf(start, length);
+		duration = Arrays.copyOf(duration, length);
+		teams = Arrays.copyOf(teams, length);
+		hooks = Arrays.copyOf(hooks, length);
+	}
+
+	/**
+	 * Told which parts of the screen changed in each frame.
+	 */
+	public interface FrameListener
+	{
+		/**
+		 * Called on the animation thread for every piece drawn in a frame, while the timeline is locked. Both where the piece
+		 * was drawn last frame and where it is now need drawing again. Positions are the top left corner of the piece, so
+		 * the size of a piece has to be added to the bottom right.
+		 *
+		 * @param fromX Where the piece was drawn last frame.
+		 * @param fromY Where the piece was drawn last frame.
+		 * @param toX Where the piece is drawn now.
+		 * @param toY Where the piece is drawn now.
+		 */
+		void onPieceMoved(double fromX, double fromY, double toX, double toY);
+	}
+}
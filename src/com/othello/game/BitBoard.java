@@ -0,0 +1,695 @@
+package com.othello.game;
+
+import java.awt.Point;
+
+/**
+ * A bitboard representation of the game for any size of board. Each team's pieces are stored in an array of longs where
+ * bit (y - 1) * width + (x - 1) is the slot at point (x, y), so an 8x8 board fits in a single long and bigger boards take
+ * as many longs as they need. Moves are found for every slot at once by shifting whole rows of bits, with masks worked out
+ * when the board is made so that lines never wrap from one row onto the next.
+ * <p>
+ * Sets of slots, such as moves and flips, are passed around as arrays of {@link #getWords()} longs that the caller owns so
+ * that nothing is allocated while playing. The static methods work on single longs laid out like a standard 8x8 board so
+ * that search code can generate moves and flips without any allocation.
+ *
+ * @version 1.0.0
+ */
+public class BitBoard
+{
+	/**
+	 * The size of the standard board, which is what the static methods and slot names work with.
+	 */
+	public static final int SIZE = 8;
+
+	/**
+	 * Every slot apart from the left and right columns. Opponent pieces are masked with this when walking a direction that
+	 * moves sideways so that a line can never wrap from one row onto the next.
+	 */
+	private static final long INNER_COLUMNS = 0x7E7E7E7E7E7E7E7EL;
+
+	private final int width;
+
+	private final int height;
+
+	/**
+	 * The amount of longs each set of slots takes.
+	 */
+	private final int words;
+
+	/**
+	 * The slots that are actually on the board, the last long has bits past the end of the board.
+	 */
+	private final long[] mask;
+
+	/**
+	 * Every slot apart from the left and right columns, the sized up version of {@link #INNER_COLUMNS}.
+	 */
+	private final long[] inner;
+
+	/**
+	 * How far each direction shifts the bits, every direction is also walked the other way with a right shift. Sideways
+	 * directions are 1, width - 1 and width + 1, and straight down is width.
+	 */
+	private final int[] shifts;
+
+	/**
+	 * The pieces belonging to the black team.
+	 */
+	private final long[] black;
+
+	/**
+	 * The pieces belonging to the white team.
+	 */
+	private final long[] white;
+
+	/**
+	 * Working space for finding moves, kept so that nothing is allocated.
+	 */
+	private final long[] line;
+
+	private final long[] next;
+
+	private final long[] opponentInner;
+
+	private final long[] empty;
+
+	private final long[] other;
+
+	/**
+	 * The Zobrist hash of the pieces on the board, updated with every change. It does not include the team that is moving.
+	 */
+	private long hash;
+
+	/**
+	 * Creates an empty bitboard.
+	 *
+	 * @param width The amount of columns on the board.
+	 * @param height The amount of rows on the board.
+	 */
+	public BitBoard(int width, int height)
+	{
+		if (width < 1 || height < 1 || (long) width * height > Integer.MAX_VALUE / 2)
+		{
+			throw new IllegalArgumentException("A bitboard can not be " + width + "x" + height);
+		}
+
+		this.width = width;
+		this.height = height;
+		this.words = (width * height + 63) / 64;
+		this.mask = new long[words];
+		this.inner = new long[words];
+		this.shifts = new int[] { 1, width, width - 1, width + 1 };
+		this.black = new long[words];
+		this.white = new long[words];
+		this.line = new long[words];
+		this.next = new long[words];
+		this.opponentInner = new long[words];
+		this.empty = new long[words];
+		this.other = new long[words];
+
+		for (int square = 0; square < width * height; square++)
+		{
+			mask[square >>> 6] |= 1L << square;
+
+			if (square % width != 0 && square % width != width - 1)
+			{
+				inner[square >>> 6] |= 1L << square;
+			}
+		}
+	}
+
+	public int getWidth()
+	{
+		return width;
+	}
+
+	public int getHeight()
+	{
+		return height;
+	}
+
+	/**
+	 * @return The amount of longs in each set of slots.
+	 */
+	public int getWords()
+	{
+		return words;
+	}
+
+	/**
+	 * @return A new empty set of slots for this board.
+	 */
+	public long[] createSet()
+	{
+		return new long[words];
+	}
+
+	/**
+	 * Converts a point on the board to the index of its bit.
+	 *
+	 * @param point The point, where the top left slot is (1, 1).
+	 * @return The index of the slot or -1 if the point is not on the board.
+	 */
+	public int getSquare(Point point)
+	{
+		int x = (int) point.getX();
+		int y = (int) point.getY();
+
+		if (x < 1 || x > width || y < 1 || y > height) return -1;
+
+		return (y - 1) * width + (x - 1);
+	}
+
+	/**
+	 * Converts the index of a bit on this board back into a point.
+	 *
+	 * @param square The index of the slot.
+	 * @return A new point where the top left slot is (1, 1).
+	 */
+	public Point toPoint(int square)
+	{
+		return new Point(square % width + 1, square / width + 1);
+	}
+
+	/**
+	 * Converts the index of a bit on a standard board back into a point.
+	 *
+	 * @param square The index of the slot.
+	 * @return A new point where the top left slot is (1, 1).
+	 */
+	public static Point getPoint(int square)
+	{
+		return new Point(square % SIZE + 1, square / SIZE + 1);
+	}
+
+	/**
+	 * @param square The index of a slot on a standard board.
+	 * @return The name of the slot in the usual notation where columns are letters and rows are numbers, for example "d3".
+	 */
+	public static String getName(int square)
+	{
+		return getName(square, SIZE);
+	}
+
+	/**
+	 * @param square The index of a slot.
+	 * @param width The width of the board.
+	 * @return The name of the slot, where columns past "z" carry on through the rest of the alphabet in capitals.
+	 */
+	public static String getName(int square, int width)
+	{
+		int x = square % width;
+
+		return String.valueOf((char) (x < 26 ? 'a' + x : 'A' + x - 26)) + (square / width + 1);
+	}
+
+	/**
+	 * The opposite of {@link #getName(int)}.
+	 *
+	 * @param name The name of a slot such as "d3".
+	 * @return The index of the slot on a standard board.
+	 */
+	public static int getSquare(String name)
+	{
+		int x = Character.toLowerCase(name.charAt(0)) - 'a';
+		int y = Integer.parseInt(name.substring(1)) - 1;
+
+		if (x < 0 || x >= SIZE || y < 0 || y >= SIZE)
+		{
+			throw new IllegalArgumentException(name + " is not a slot");
+		}
+
+		return y * SIZE + x;
+	}
+
+	/**
+	 * @param set A set of slots.
+	 * @param square The index of a slot.
+	 * @return Whether the slot is in the set.
+	 */
+	public static boolean contains(long[] set, int square)
+	{
+		return (set[square >>> 6] & (1L << square)) != 0;
+	}
+
+	/**
+	 * @param set A set of slots.
+	 * @return Whether the set has no slots in it.
+	 */
+	public static boolean isEmpty(long[] set)
+	{
+		for (long word : set)
+		{
+			if (word != 0) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * @param set A set of slots.
+	 * @return The amount of slots in the set.
+	 */
+	public static int count(long[] set)
+	{
+		int count = 0;
+
+		for (long word : set)
+		{
+			count += Long.bitCount(word);
+		}
+
+		return count;
+	}
+
+	/**
+	 * Finds the first slot in a set at or after a slot, used to walk a set like this:
+	 *
+	 * <pre>
+	 * for (int square = BitBoard.next(set, 0); square != -1; square = BitBoard.next(set, square + 1))
+	 * </pre>
+	 *
+	 * @param set A set of slots.
+	 * @param from The slot to start looking from.
+	 * @return The index of the slot or -1 if there are no more.
+	 */
+	public static int next(long[] set, int from)
+	{
+		int word = from >>> 6;
+
+		if (word >= set.length) return -1;
+
+		long bits = set[word] & (-1L << from);
+
+		while (bits == 0)
+		{
+			if (++word == set.length) return -1;
+
+			bits = set[word];
+		}
+
+		return (word << 6) + Long.numberOfTrailingZeros(bits);
+	}
+
+	/**
+	 * The pieces of a team as a single long, only possible when the board fits in one.
+	 *
+	 * @param team The team.
+	 * @return The pieces of the team.
+	 * @throws IllegalStateException If the board is bigger than 64 slots.
+	 */
+	public long getPieces(Team team)
+	{
+		if (words != 1) throw new IllegalStateException("A " + width + "x" + height + " board does not fit in a long");
+
+		return team == Team.BLACK ? black[0] : white[0];
+	}
+
+	/**
+	 * @param team The team.
+	 * @return Whether the slot has a piece of the team on it.
+	 */
+	public boolean hasPiece(Team team, int square)
+	{
+		return contains(team == Team.BLACK ? black : white, square);
+	}
+
+	/**
+	 * @param square The index of the slot.
+	 * @return The team of the piece on the slot or null if it is empty.
+	 */
+	public Team getTeam(int square)
+	{
+		if (contains(black, square)) return Team.BLACK;
+		if (contains(white, square)) return Team.WHITE;
+
+		return null;
+	}
+
+	public long getHash()
+	{
+		return hash;
+	}
+
+	public int getCount(Team team)
+	{
+		return count(team == Team.BLACK ? black : white);
+	}
+
+	/**
+	 * Puts a piece on the board without flipping anything. Any piece already on the slot is replaced.
+	 *
+	 * @param team The team the piece belongs to.
+	 * @param square The index of the slot.
+	 */
+	public void setPiece(Team team, int square)
+	{
+		int word = square >>> 6;
+		long bit = 1L << square;
+
+		if ((black[word] & bit) != 0) hash ^= Zobrist.getPieceKey(Team.BLACK.ordinal(), square);
+		if ((white[word] & bit) != 0) hash ^= Zobrist.getPieceKey(Team.WHITE.ordinal(), square);
+		hash ^= Zobrist.getPieceKey(team.ordinal(), square);
+
+		if (team == Team.BLACK)
+		{
+			black[word] |= bit;
+			white[word] &= ~bit;
+		}
+		else
+		{
+			white[word] |= bit;
+			black[word] &= ~bit;
+		}
+	}
+
+	/**
+	 * Finds every slot the team can place a piece on.
+	 *
+	 * @param team The team that is moving.
+	 * @param moves Set to the slots that can be placed on.
+	 */
+	public void getMoves(Team team, long[] moves)
+	{
+		long[] player = team == Team.BLACK ? black : white;
+		long[] opponent = team == Team.BLACK ? white : black;
+
+		if (words == 1 && width == SIZE)
+		{
+			moves[0] = getMoves(player[0], opponent[0]) & mask[0];
+			return;
+		}
+
+		for (int i = 0; i < words; i++)
+		{
+			empty[i] = ~(player[i] | opponent[i]) & mask[i];
+			opponentInner[i] = opponent[i] & inner[i];
+			moves[i] = 0;
+		}
+
+		for (int direction = 0; direction < shifts.length; direction++)
+		{
+			//Straight up and down can't wrap so they don't need the sideways mask.
+			long[] blockers = shifts[direction] == width ? opponent : opponentInner;
+
+			addMoves(player, blockers, shifts[direction], moves);
+			addMoves(player, blockers, -shifts[direction], moves);
+		}
+	}
+
+	/**
+	 * @param team The team that is moving.
+	 * @return Whether the team can place a piece anywhere.
+	 */
+	public boolean hasMoves(Team team)
+	{
+		getMoves(team, other);
+
+		return !isEmpty(other);
+	}
+
+	/**
+	 * Walks every line of opponent pieces starting next to the player's pieces in one direction and adds the empty slots
+	 * that end them.
+	 */
+	private void addMoves(long[] player, long[] blockers, int shift, long[] moves)
+	{
+		shift(player, shift, line);
+		and(line, blockers);
+
+		//A line can be at most as long as the board is wide or high, less the two ends.
+		for (int i = Math.max(width, height) - 3; i > 0; i--)
+		{
+			shift(line, shift, next);
+			and(next, blockers);
+
+			boolean grew = false;
+
+			for (int word = 0; word < words; word++)
+			{
+				grew |= (next[word] & ~line[word]) != 0;
+				line[word] |= next[word];
+			}
+
+			if (!grew) break;
+		}
+
+		shift(line, shift, next);
+
+		for (int word = 0; word < words; word++)
+		{
+			moves[word] |= next[word] & empty[word];
+		}
+	}
+
+	/**
+	 * Shifts a set of slots towards the end of the board for positive shifts and towards the start for negative ones.
+	 */
+	private void shift(long[] from, int shift, long[] to)
+	{
+		if (shift > 0)
+		{
+			int wordShift = shift >>> 6;
+			int bitShift = shift & 63;
+
+			for (int i = words - 1; i >= 0; i--)
+			{
+				int source = i - wordShift;
+				long word = source >= 0 ? from[source] << bitShift : 0;
+
+				if (bitShift != 0 && source > 0) word |= from[source - 1] >>> (64 - bitShift);
+
+				to[i] = word;
+			}
+		}
+		else
+		{
+			int wordShift = -shift >>> 6;
+			int bitShift = -shift & 63;
+
+			for (int i = 0; i < words; i++)
+			{
+				int source = i + wordShift;
+				long word = source < words ? from[source] >>> bitShift : 0;
+
+				if (bitShift != 0 && source + 1 < words) word |= from[source + 1] << (64 - bitShift);
+
+				to[i] = word;
+			}
+		}
+
+		to[words - 1] &= mask[words - 1];
+	}
+
+	private void and(long[] set, long[] with)
+	{
+		for (int i = 0; i < words; i++)
+		{
+			set[i] &= with[i];
+		}
+	}
+
+	/**
+	 * Finds the pieces that would be flipped by placing on a slot.
+	 *
+	 * @param team The team that is moving.
+	 * @param square The slot the team is placing on.
+	 * @param flips Set to the pieces that would be flipped, empty if the move is not valid.
+	 * @return The amount of pieces that would be flipped.
+	 */
+	public int getFlips(Team team, int square, long[] flips)
+	{
+		for (int i = 0; i < words; i++)
+		{
+			flips[i] = 0;
+		}
+
+		if (contains(black, square) || contains(white, square)) return 0;
+
+		long[] player = team == Team.BLACK ? black : white;
+		long[] opponent = team == Team.BLACK ? white : black;
+
+		if (words == 1 && width == SIZE)
+		{
+			flips[0] = getFlips(player[0], opponent[0], square);
+			return Long.bitCount(flips[0]);
+		}
+
+		int count = 0;
+		int startX = square % width;
+		int startY = square / width;
+
+		for (int dx = -1; dx <= 1; dx++)
+		{
+			for (int dy = -1; dy <= 1; dy++)
+			{
+				if (dx == 0 && dy == 0) continue;
+
+				int x = startX + dx;
+				int y = startY + dy;
+				int length = 0;
+
+				while (x >= 0 && x < width && y >= 0 && y < height && contains(opponent, y * width + x))
+				{
+					x += dx;
+					y += dy;
+					length++;
+				}
+
+				if (length == 0 || x < 0 || x >= width || y < 0 || y >= height || !contains(player, y * width + x)) continue;
+
+				//Walk back over the line that is closed off and flip it.
+				for (int i = 0; i < length; i++)
+				{
+					x -= dx;
+					y -= dy;
+					flips[(y * width + x) >>> 6] |= 1L << (y * width + x);
+				}
+
+				count += length;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Places a piece for the team and flips the pieces given.
+	 *
+	 * @param team The team that is moving.
+	 * @param square The slot the piece is placed on.
+	 * @param flips The pieces that change teams, as found by {@link #getFlips(Team, int, long[])}.
+	 */
+	public void move(Team team, int square, long[] flips)
+	{
+		long[] player = team == Team.BLACK ? black : white;
+		long[] opponent = team == Team.BLACK ? white : black;
+
+		hash ^= Zobrist.getPieceKey(team.ordinal(), square);
+		player[square >>> 6] |= 1L << square;
+
+		flip(opponent, player, flips);
+	}
+
+	/**
+	 * Takes back a move made with {@link #move(Team, int, long[])}.
+	 *
+	 * @param team The team that made the move.
+	 * @param square The slot the piece was placed on.
+	 * @param flips The pieces that were flipped by the move.
+	 */
+	public void undo(Team team, int square, long[] flips)
+	{
+		long[] player = team == Team.BLACK ? black : white;
+		long[] opponent = team == Team.BLACK ? white : black;
+
+		hash ^= Zobrist.getPieceKey(team.ordinal(), square);
+		player[square >>> 6] &= ~(1L << square);
+
+		flip(player, opponent, flips);
+	}
+
+	private void flip(long[] from, long[] to, long[] flips)
+	{
+		for (int word = 0; word < words; word++)
+		{
+			from[word] &= ~flips[word];
+			to[word] |= flips[word];
+
+			for (long bits = flips[word]; bits != 0; bits &= bits - 1)
+			{
+				hash ^= Zobrist.getFlipKey((word << 6) + Long.numberOfTrailingZeros(bits));
+			}
+		}
+	}
+
+	/**
+	 * Generates every valid move on a full 8x8 board.
+	 *
+	 * @param player The pieces of the team that is moving.
+	 * @param opponent The pieces of the other team.
+	 * @return A mask of every empty slot that flips at least one piece.
+	 */
+	public static long getMoves(long player, long opponent)
+	{
+		long empty = ~(player | opponent);
+		long inner = opponent & INNER_COLUMNS;
+
+		return movesLeft(player, inner, empty, 1) | movesRight(player, inner, empty, 1)
+				| movesLeft(player, opponent, empty, 8) | movesRight(player, opponent, empty, 8)
+				| movesLeft(player, inner, empty, 7) | movesRight(player, inner, empty, 7)
+				| movesLeft(player, inner, empty, 9) | movesRight(player, inner, empty, 9);
+	}
+
+	/**
+	 * Calculates the pieces flipped by placing on a slot. There are no branches that depend on the position, each direction
+	 * is walked a fixed number of times and discarded with a mask if it is not closed off by one of the player's pieces.
+	 *
+	 * @param player The pieces of the team that is moving.
+	 * @param opponent The pieces of the other team.
+	 * @param square The empty slot being placed on.
+	 * @return A mask of the opponent pieces that are flipped.
+	 */
+	public static long getFlips(long player, long opponent, int square)
+	{
+		long move = 1L << square;
+		long inner = opponent & INNER_COLUMNS;
+
+		return flipsLeft(move, player, inner, 1) | flipsRight(move, player, inner, 1)
+				| flipsLeft(move, player, opponent, 8) | flipsRight(move, player, opponent, 8)
+				| flipsLeft(move, player, inner, 7) | flipsRight(move, player, inner, 7)
+				| flipsLeft(move, player, inner, 9) | flipsRight(move, player, inner, 9);
+	}
+
+	private static long movesLeft(long player, long opponent, long empty, int shift)
+	{
+		long line = (player << shift) & opponent;
+		line |= (line << shift) & opponent;
+		line |= (line << shift) & opponent;
+		line |= (line << shift) & opponent;
+		line |= (line << shift) & opponent;
+		line |= (line << shift) & opponent;
+
+		return (line << shift) & empty;
+	}
+
+	private static long movesRight(long player, long opponent, long empty, int shift)
+	{
+		long line = (player >>> shift) & opponent;
+		line |= (line >>> shift) & opponent;
+		line |= (line >>> shift) & opponent;
+		line |= (line >>> shift) & opponent;
+		line |= (line >>> shift) & opponent;
+		line |= (line >>> shift) & opponent;
+
+		return (line >>> shift) & empty;
+	}
+
+	private static long flipsLeft(long move, long player, long opponent, int shift)
+	{
+		long line = (move << shift) & opponent;
+		line |= (line << shift) & opponent;
+		line |= (line << shift) & opponent;
+		line |= (line << shift) & opponent;
+		line |= (line << shift) & opponent;
+		line |= (line << shift) & opponent;
+
+		long closed = (line << shift) & player;
+
+		return line & -((closed | -closed) >>> 63);
+	}
+
+	private static long flipsRight(long move, long player, long opponent, int shift)
+	{
+		long line = (move >>> shift) & opponent;
+		line |= (line >>> shift) & opponent;
+		line |= (line >>> shift) & opponent;
+		line |= (line >>> shift) & opponent;
+		line |= (line >>> shift) & opponent;
+		line |= (line >>> shift) & opponent;
+
+		long closed = (line >>> shift) & player;
+
+		return line & -((closed | -closed) >>> 63);
+	}
+}
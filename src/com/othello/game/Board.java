@@ -2,13 +2,14 @@ package com.othello.game;
 
 import java.awt.Point;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-import com.othello.Othello;
-import com.othello.animation.impl.MoveAnimation;
+import com.othello.jfr.MoveEvent;
 
 /**
  * This class keeps track of the state of the game such as how many pieces that black and white team have placed and where those pieces are located.
@@ -18,6 +19,11 @@ import com.othello.animation.impl.MoveAnimation;
  */
 public class Board
 {
+	/**
+	 * The bits of a record in {@link #history} that hold the slot.
+	 */
+	private static final int SQUARE_MASK = (1 << 30) - 1;
+
 	/**
 	 * The amount of columns that the game will have. This value should not change once it's set in the constructor.
 	 */
@@ -43,11 +49,22 @@ public class Board
 	 */
 	private Team turn;
 
+	/**
+	 * The team who moved first, or will move first if the game has not started.
+	 */
+	private Team startingTurn;
+
 	/**
 	 * A map that stores pieces a set point. The JBoard class uses this map to render the pieces on the screen.
 	 */
 	private final Map<Point, Piece> pointToPiece = new HashMap<>();
 
+	/**
+	 * The bitboard that holds the real state of the game. The rules use this to find valid moves and flips, the map above
+	 * only keeps the piece objects around so that they can be animated.
+	 */
+	private final BitBoard bitBoard;
+
 	/**
 	 * The amount of white pieces on the board.
 	 */
@@ -57,15 +74,88 @@ public class Board
 	 * The amount of black pieces on the board.
 	 */
 	private int black;
+
+	/**
+	 * The amount of empty slots on the board.
+	 */
+	private int empty;
+
+	/**
+	 * The slots the team that is moving can place on. It is found once when the turn starts so that checking a move never
+	 * has to look at the board.
+	 */
+	private final long[] mobility;
+
+	/**
+	 * Working space for the moves of the other team and the pieces flipped by a move.
+	 */
+	private final long[] scratch;
+
+	/**
+	 * Whether the team that moved before this turn had to pass.
+	 */
+	private boolean passed;
+
+	/**
+	 * Whether neither team can move.
+	 */
+	private boolean gameOver;
 	
 	private boolean running = false;
 
+	/**
+	 * The teams that are played by the AI. Every other team waits for {@link #move(Point)} to be called.
+	 */
+	private final Set<Team> computerTeams = EnumSet.of(Team.BLACK);
+
+	/**
+	 * Everything that is following the game, such as the JBoard. The game does not need any listeners to run.
+	 */
+	private final List<BoardListener> listeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * The pieces flipped by each move made, oldest first, with {@link BitBoard#getWords()} longs for each move. Together
+	 * with {@link #history} this is enough to take a move back. Every move fills a slot, so there can never be more moves
+	 * than slots and nothing is allocated while playing.
+	 */
+	private final long[] historyFlips;
+
+	/**
+	 * The slot of each move made in the lowest 30 bits, the team that made it in bit 30 and whether the turn before it was
+	 * a pass in bit 31.
+	 */
+	private final int[] history;
+
+	/**
+	 * The amount of moves that have been made and not taken back.
+	 */
+	private int historySize;
+
+	/**
+	 * The amount of moves that can be made again with {@link #redo()}, counted from the start of the game. Making a new
+	 * move forgets any moves that were taken back.
+	 */
+	private int redoSize;
+
+	/**
+	 * The amount of holds on the current turn. A listener that is still showing a move can hold the turn so that the next
+	 * turn only starts once it is done. When nothing holds the turn it finishes as soon as the move is made.
+	 */
+	private int holds;
+
 	public Board(Rules rules, Team startingTurn, int width, int height)
 	{
 		this.rules = rules;
 		this.turn = startingTurn;
+		this.startingTurn = startingTurn;
 		this.width = width;
 		this.height = height;
+		this.bitBoard = new BitBoard(width, height);
+		this.empty = width * height;
+		this.mobility = bitBoard.createSet();
+		this.scratch = bitBoard.createSet();
+		this.historyFlips = new long[width * height * bitBoard.getWords()];
+		this.history = new int[width * height];
 	}
 
 	public void setWinner(Team winner)
@@ -81,6 +171,8 @@ public class Board
 	public void setTurn(Team team)
 	{
 		this.turn = team;
+		if (historySize == 0) startingTurn = team;
+		updateMobility();
 	}
 
 	public Team getTurn()
@@ -98,6 +190,32 @@ public class Board
 		return running;
 	}
 
+	public void setComputer(Team team, boolean computer)
+	{
+		if (computer) computerTeams.add(team);
+		else computerTeams.remove(team);
+	}
+
+	public boolean isComputer(Team team)
+	{
+		return computerTeams.contains(team);
+	}
+
+	public void addListener(BoardListener listener)
+	{
+		listeners.add(listener);
+	}
+
+	public void removeListener(BoardListener listener)
+	{
+		listeners.remove(listener);
+	}
+
+	public List<BoardListener> getListeners()
+	{
+		return listeners;
+	}
+
 	public List<Point> getPoints()
 	{
 		List<Point> points = new ArrayList<>();
@@ -122,9 +240,27 @@ public class Board
 	{
 		synchronized (getPointToPieces())
 		{
+			int square = bitBoard.getSquare(point);
+
 			pointToPiece.put(point, piece);
-			updateCount();
-			Othello.getInstance().repaint();
+
+			//Pieces placed by a move are already on the bitboard, only pieces set up by hand change the counts.
+			if (!bitBoard.hasPiece(piece.getTeam(), square))
+			{
+				Team previous = bitBoard.getTeam(square);
+
+				if (previous == Team.BLACK) black--;
+				else if (previous == Team.WHITE) white--;
+				else empty--;
+
+				if (piece.getTeam() == Team.BLACK) black++;
+				else white++;
+
+				bitBoard.setPiece(piece.getTeam(), square);
+				updateMobility();
+			}
+
+			listeners.forEach(BoardListener::onUpdate);
 			
 			return piece;
 		}
@@ -139,64 +275,322 @@ public class Board
 		return null;
 	}
 	
-	public void move(Point target)
+	/**
+	 * Places a piece for the team, flips the pieces given and updates the counts. The turn does not change until it
+	 * finishes.
+	 *
+	 * @param team The team that is moving.
+	 * @param square The slot the piece is placed on.
+	 * @param flips The pieces that change teams.
+	 */
+	public void applyMove(Team team, int square, long[] flips)
 	{
-		if (running) return;
-		if (!rules.canPlace(getTurn(), target)) return;
-		
-		running = true;
-		rules.move(getTurn(), target);
-		updateCount();
+		MoveEvent event = new MoveEvent();
+		int flipped = BitBoard.count(flips);
+
+		bitBoard.move(team, square, flips);
+		empty--;
+
+		System.arraycopy(flips, 0, historyFlips, historySize * flips.length, flips.length);
+		history[historySize] = square | team.ordinal() << 30 | (passed ? 1 << 31 : 0);
+		redoSize = ++historySize;
+
+		if (event.shouldCommit())
+		{
+			event.team = team.name();
+			event.slot = BitBoard.getName(square, width);
+			event.flipped = flipped;
+			event.empty = empty;
+			event.commit();
+		}
+
+		if (team == Team.BLACK)
+		{
+			black += flipped + 1;
+			white -= flipped;
+		}
+		else
+		{
+			white += flipped + 1;
+			black -= flipped;
+		}
 	}
-	
-	public void turnFinish(Piece piece)
+
+	/**
+	 * Takes back the last move. Pieces go straight back to where they were without any animation and the AI is not asked to
+	 * move, even if it is its turn. Any pondering is stopped, {@link #resume()} starts it again.
+	 *
+	 * @return False if there is no move to take back or a move is still being made.
+	 */
+	public boolean undo()
 	{
-		boolean containsTeam = false;
-		
-		for (Entry<Piece, MoveAnimation> entry : Othello.getInstance().getLastBoard().getAnimatingPieces().entrySet())
+		if (running || historySize == 0) return false;
+
+		//The AI may be pondering the position that is about to change, see resume() for starting again.
+		rules.stopPondering();
+
+		historySize--;
+
+		int record = history[historySize];
+		long[] flips = getHistoryFlips(historySize);
+		int square = record & SQUARE_MASK;
+		Team team = Team.values()[record >>> 30 & 1];
+		Team opponent = team == Team.BLACK ? Team.WHITE : Team.BLACK;
+		int flipped = BitBoard.count(flips);
+
+		bitBoard.undo(team, square, flips);
+		empty++;
+
+		if (team == Team.BLACK)
+		{
+			black -= flipped + 1;
+			white += flipped;
+		}
+		else
+		{
+			white -= flipped + 1;
+			black += flipped;
+		}
+
+		synchronized (getPointToPieces())
 		{
-			if (entry.getKey().getTeam() == piece.getTeam())
+			pointToPiece.remove(bitBoard.toPoint(square));
+
+			for (int flip = BitBoard.next(flips, 0); flip != -1; flip = BitBoard.next(flips, flip + 1))
 			{
-				containsTeam = true;
-				break;
+				Piece piece = pointToPiece.get(bitBoard.toPoint(flip));
+
+				if (piece != null) piece.setTeam(opponent);
 			}
 		}
-		
-		if (!containsTeam)
+
+		turn = team;
+		passed = (record & 1 << 31) != 0;
+		winner = null;
+		updateMobility();
+		rules.updateValidMoves();
+		listeners.forEach(BoardListener::onUpdate);
+
+		return true;
+	}
+
+	/**
+	 * Makes the last move that was taken back again. Like {@link #undo()} nothing is animated, the AI is not asked to move
+	 * and any pondering is stopped.
+	 *
+	 * @return False if there is no move to make again or a move is still being made.
+	 */
+	public boolean redo()
+	{
+		if (running || historySize == redoSize) return false;
+
+		//The AI may be pondering the position that is about to change, see resume() for starting again.
+		rules.stopPondering();
+
+		int record = history[historySize];
+		long[] flips = getHistoryFlips(historySize);
+		int square = record & SQUARE_MASK;
+		Team team = Team.values()[record >>> 30 & 1];
+		int redo = redoSize;
+
+		applyMove(team, square, flips);
+		redoSize = redo;
+
+		synchronized (getPointToPieces())
 		{
-			turn = turn == Team.BLACK ? Team.WHITE : Team.BLACK;
-			rules.updateValidMoves();
-			running = false;
+			pointToPiece.put(bitBoard.toPoint(square), new Piece(team));
 
-			if (turn == Team.BLACK)
+			for (int flip = BitBoard.next(flips, 0); flip != -1; flip = BitBoard.next(flips, flip + 1))
 			{
-				rules.runAI();
+				Piece piece = pointToPiece.get(bitBoard.toPoint(flip));
+
+				if (piece != null) piece.setTeam(team);
 			}
 		}
+
+		nextTurn();
+		listeners.forEach(BoardListener::onUpdate);
+
+		return true;
+	}
+
+	/**
+	 * Copies the pieces flipped by a move in the history into the scratch space.
+	 */
+	private long[] getHistoryFlips(int index)
+	{
+		System.arraycopy(historyFlips, index * scratch.length, scratch, 0, scratch.length);
+
+		return scratch;
+	}
+
+	/**
+	 * @return The amount of moves made and not taken back.
+	 */
+	public int getMoveCount()
+	{
+		return historySize;
+	}
+
+	/**
+	 * @param index The index of a move, where 0 is the first move of the game.
+	 * @return The slot the move placed on.
+	 */
+	public int getMove(int index)
+	{
+		if (index < 0 || index >= historySize) throw new IndexOutOfBoundsException("No move " + index);
+
+		return history[index] & SQUARE_MASK;
+	}
+
+	public Team getStartingTurn()
+	{
+		return startingTurn;
+	}
+
+	public boolean canUndo()
+	{
+		return !running && historySize > 0;
+	}
+
+	public boolean canRedo()
+	{
+		return !running && historySize < redoSize;
+	}
+
+	/**
+	 * Lets the AI move if it is its turn, or ponder if it is a person's turn against the AI. This is used to carry on after
+	 * moves have been taken back or made again.
+	 */
+	public void resume()
+	{
+		if (!running && winner == null)
+		{
+			think();
+		}
+	}
+
+	/**
+	 * Starts the game by finding the valid moves for the first turn. If the first team is played by the AI it will move.
+	 */
+	public void start()
+	{
+		updateMobility();
+		rules.updateValidMoves();
+		listeners.forEach(BoardListener::onUpdate);
+
+		think();
+	}
+
+	public void move(Point target)
+	{
+		if (running) return;
+		if (!rules.canPlace(getTurn(), target)) return;
+
+		//Stop the AI pondering so its threads are free to answer, what it found stays in the transposition table.
+		rules.stopPondering();
+
+		running = true;
+		holdTurn();
+		rules.move(getTurn(), target);
+		releaseTurn();
+	}
+
+	/**
+	 * Stops the current turn from finishing until {@link #releaseTurn()} is called.
+	 */
+	public synchronized void holdTurn()
+	{
+		holds++;
+	}
+
+	/**
+	 * Releases a hold on the current turn. Once every hold is released the turn finishes.
+	 */
+	public void releaseTurn()
+	{
+		synchronized (this)
+		{
+			if (--holds > 0 || !running) return;
+		}
+
+		turnFinish();
 	}
 	
-	public Team updateCount()
+	private void turnFinish()
 	{
-		white = 0;
-		black = 0;
-		for (Point point : getPoints())
+		nextTurn();
+
+		running = false;
+		listeners.forEach(BoardListener::onUpdate);
+
+		if (winner == null)
 		{
-			Piece piece = getPointToPieces().get(point);
-			
-			if (piece == null) continue;
-			
-			if (piece.getTeam() == Team.WHITE) white++;
-			else black ++;
+			think();
 		}
-		
+	}
+
+	/**
+	 * Lets the AI move if it is its turn, otherwise lets it ponder while a person chooses a move against it.
+	 */
+	private void think()
+	{
+		if (isComputer(turn))
+		{
+			rules.runAI();
+		}
+		else if (isComputer(turn == Team.BLACK ? Team.WHITE : Team.BLACK))
+		{
+			rules.ponder();
+		}
+	}
+
+	/**
+	 * Gives the turn to the other team, or back to the team that moved if the other team has to pass, and works out if
+	 * there is a winner.
+	 */
+	private void nextTurn()
+	{
+		turn = turn == Team.BLACK ? Team.WHITE : Team.BLACK;
+		updateMobility();
+		passed = false;
+
+		if (BitBoard.isEmpty(mobility) && !gameOver)
+		{
+			//The other team has nowhere to go so they pass.
+			turn = turn == Team.BLACK ? Team.WHITE : Team.BLACK;
+			updateMobility();
+			passed = true;
+		}
+
+		rules.updateValidMoves();
+		winner = updateCount();
+	}
+
+	/**
+	 * Finds the moves of the team that is moving, and whether the game is over because neither team can move.
+	 */
+	private void updateMobility()
+	{
+		bitBoard.getMoves(turn, mobility);
+		gameOver = BitBoard.isEmpty(mobility) && !bitBoard.hasMoves(turn == Team.BLACK ? Team.WHITE : Team.BLACK);
+	}
+
+	/**
+	 * Works out the winner from the counts, which are kept up to date as pieces are placed so nothing is counted here.
+	 *
+	 * @return The winning team, or null if the game is not over.
+	 */
+	public Team updateCount()
+	{
 		if (white == 0) return Team.BLACK;
 		if (black == 0) return Team.WHITE;
-		
-		if (white + black == width * height) return white > black ? Team.WHITE : Team.BLACK;
-		
+
+		if (empty == 0 || gameOver) return white > black ? Team.WHITE : Team.BLACK;
+
 		return null;
 	}
-	
+
 	public int getWhite()
 	{
 		return white;
@@ -206,6 +600,32 @@ public class Board
 	{
 		return black;
 	}
+
+	public int getEmpty()
+	{
+		return empty;
+	}
+
+	/**
+	 * @return The slots the team that is moving can place on. The set belongs to the board and changes with every turn.
+	 */
+	public long[] getMobility()
+	{
+		return mobility;
+	}
+
+	/**
+	 * @return Whether the team that moved before this turn had to pass.
+	 */
+	public boolean isPassed()
+	{
+		return passed;
+	}
+
+	public boolean isGameOver()
+	{
+		return gameOver;
+	}
 	
 	public int getWidth()
 	{
@@ -221,4 +641,17 @@ public class Board
 	{
 		return rules;
 	}
+
+	public BitBoard getBitBoard()
+	{
+		return bitBoard;
+	}
+
+	/**
+	 * @return The Zobrist hash of the pieces on the board and the team that is moving.
+	 */
+	public long getHash()
+	{
+		return bitBoard.getHash() ^ (turn == Team.WHITE ? Zobrist.WHITE_TO_MOVE : 0);
+	}
 }
@@ -1,15 +1,35 @@
 package com.othello.game;
 
 import java.awt.Point;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 public class BoardFactory
 {
 	public static Board createStandardBoard()
 	{  
-		int size = 8;
-		
+		return createBoard(BitBoard.SIZE, BitBoard.SIZE);
+	}
+
+	/**
+	 * Creates a board of any size with the four starting pieces in the middle. Boards that aren't 8x8 get a simpler search
+	 * from the AI, see {@link com.othello.ai.Search#search(BitBoard, Team)}.
+	 *
+	 * @param width The amount of columns, at least 2.
+	 * @param height The amount of rows, at least 2.
+	 * @return The new board.
+	 */
+	public static Board createBoard(int width, int height)
+	{
+		if (width < 2 || height < 2)
+		{
+			throw new IllegalArgumentException("A board can not be " + width + "x" + height);
+		}
+
 		Rules rules = new Rules();
-		Board board = new Board(rules, Team.WHITE, size, size);
+		Board board = new Board(rules, Team.WHITE, width, height);
 		
 		rules.setBoard(board);
 				
@@ -35,4 +55,67 @@ public class BoardFactory
 
 		return board;
 	}
+
+	/**
+	 * Creates a standard board and plays the given moves on it. Passes are made automatically.
+	 *
+	 * @param moves The moves to play, each written like "d3", for example "d3c5f6".
+	 * @return The board after the moves.
+	 */
+	public static Board createBoard(String moves)
+	{
+		Board board = createStandardBoard();
+		board.setComputer(Team.BLACK, false);
+
+		for (int i = 0; i + 1 < moves.length(); i += 2)
+		{
+			Point point = BitBoard.getPoint(BitBoard.getSquare(moves.substring(i, i + 2)));
+
+			if (!board.getRules().canPlace(board.getTurn(), point))
+			{
+				throw new IllegalArgumentException(moves.substring(i, i + 2) + " can not be played in " + moves);
+			}
+
+			board.move(point);
+		}
+
+		board.setComputer(Team.BLACK, true);
+		return board;
+	}
+
+	/**
+	 * Creates every different position that can be reached by playing the given amount of moves from the standard board.
+	 *
+	 * @param plies The amount of moves to play.
+	 * @return The boards, in the order their moves were found.
+	 */
+	public static List<Board> createOpeningBoards(int plies)
+	{
+		List<Board> boards = new ArrayList<>();
+		Set<Long> seen = new HashSet<>();
+
+		addOpeningBoards("", plies, boards, seen);
+		return boards;
+	}
+
+	private static void addOpeningBoards(String moves, int plies, List<Board> boards, Set<Long> seen)
+	{
+		Board board = createBoard(moves);
+
+		if (plies == 0)
+		{
+			if (board.getWinner() == null && seen.add(board.getHash()))
+			{
+				boards.add(board);
+			}
+			return;
+		}
+
+		long[] valid = board.getMobility();
+
+		for (int square = BitBoard.next(valid, 0); square != -1; square = BitBoard.next(valid, square + 1))
+		{
+			addOpeningBoards(moves + BitBoard.getName(square), plies - 1, boards, seen);
+		}
+	}
 }
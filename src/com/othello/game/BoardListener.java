@@ -0,0 +1,35 @@
+package com.othello.game;
+
+import java.awt.Point;
+
+/**
+ * Lets other classes such as the JBoard follow the game without the game knowing about them. The game logic runs the same
+ * whether or not anything is listening, which allows it to be used without a window.
+ *
+ * @version 1.0.0
+ */
+public interface BoardListener
+{
+	/**
+	 * Called when a team places a new piece during a move.
+	 *
+	 * @param point The point the piece was placed on.
+	 * @param piece The new piece.
+	 */
+	void onPiecePlaced(Point point, Piece piece);
+
+	/**
+	 * Called for each piece flipped by a move. The piece already belongs to the moving team when this is called.
+	 *
+	 * @param point The point of the piece.
+	 * @param piece The piece that was flipped.
+	 * @param previous The team the piece belonged to before the move.
+	 * @param index The order the piece was flipped in, starting at 0.
+	 */
+	void onPieceFlipped(Point point, Piece piece, Team previous, int index);
+
+	/**
+	 * Called whenever the state of the board changes and anything showing it should be refreshed.
+	 */
+	void onUpdate();
+}
@@ -0,0 +1,408 @@
+package com.othello.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts every position reached by playing all moves to a given depth. The counts from the standard board are known, so
+ * comparing against them proves that move generation is right, and timing them shows how fast it is.
+ * <p>
+ * A pass counts as a move. A game that ends before the depth is reached counts as one position and is not played further.
+ *
+ * @version 1.0.0
+ */
+public class Perft
+{
+	/**
+	 * The known counts from the standard board, where index 1 is the count for depth 1.
+	 */
+	public static final long[] COUNTS = { 1L, 4L, 12L, 56L, 244L, 1396L, 8200L, 55092L, 390216L, 3005288L, 24571284L, 212258800L, 1939886636L, 18429641748L, 184042084512L };
+
+	/**
+	 * Subtrees with fewer moves left than this are counted on the thread that found them.
+	 */
+	private static final int SPLIT_DEPTH = 5;
+
+	/**
+	 * Counts the positions on one thread.
+	 *
+	 * @param player The pieces of the team that is moving.
+	 * @param opponent The pieces of the other team.
+	 * @param depth The amount of moves to play.
+	 * @return The amount of positions.
+	 */
+	public static long count(long player, long opponent, int depth)
+	{
+		if (depth == 0) return 1;
+
+		long moves = BitBoard.getMoves(player, opponent);
+
+		if (moves == 0)
+		{
+			if (BitBoard.getMoves(opponent, player) == 0) return 1;
+
+			return count(opponent, player, depth - 1);
+		}
+
+		//The last move only needs counting, not playing.
+		if (depth == 1) return Long.bitCount(moves);
+
+		long nodes = 0;
+
+		for (; moves != 0; moves &= moves - 1)
+		{
+			int square = Long.numberOfTrailingZeros(moves);
+			long flips = BitBoard.getFlips(player, opponent, square);
+
+			nodes += count(opponent & ~flips, player | flips | (1L << square), depth - 1);
+		}
+
+		return nodes;
+	}
+
+	/**
+	 * Counts the positions on every thread of the pool.
+	 *
+	 * @param pool The pool to run on.
+	 * @param player The pieces of the team that is moving.
+	 * @param opponent The pieces of the other team.
+	 * @param depth The amount of moves to play.
+	 * @return The amount of positions.
+	 */
+	public static long count(ForkJoinPool pool, long player, long opponent, int depth)
+	{
+		return pool.invoke(new CountTask(player, opponent, depth));
+	}
+
+	/**
+	 * Counts the positions with a generator written straight from the rules, one square and direction at a time, and
+	 * checks every move list and every flip against the one from {@link BitBoard}.
+	 *
+	 * @param player The pieces of the team that is moving.
+	 * @param opponent The pieces of the other team.
+	 * @param depth The amount of moves to play.
+	 * @return The amount of positions.
+	 * @throws IllegalStateException If the generators disagree.
+	 */
+	public static long verify(long player, long opponent, int depth)
+	{
+		if (depth == 0) return 1;
+
+		long moves = 0;
+
+		for (int square = 0; square < 64; square++)
+		{
+			if (getNaiveFlips(player, opponent, square) != 0) moves |= 1L << square;
+		}
+
+		if (moves != BitBoard.getMoves(player, opponent))
+		{
+			throw new IllegalStateException(String.format("Moves differ for %016x %016x: %016x, expected %016x", player, opponent, BitBoard.getMoves(player, opponent), moves));
+		}
+
+		if (moves == 0)
+		{
+			if (BitBoard.getMoves(opponent, player) == 0) return 1;
+
+			return verify(opponent, player, depth - 1);
+		}
+
+		long nodes = 0;
+
+		for (; moves != 0; moves &= moves - 1)
+		{
+			int square = Long.numberOfTrailingZeros(moves);
+			long flips = getNaiveFlips(player, opponent, square);
+
+			if (flips != BitBoard.getFlips(player, opponent, square))
+			{
+				throw new IllegalStateException(String.format("Flips differ for %016x %016x at %s: %016x, expected %016x", player, opponent, BitBoard.getName(square), BitBoard.getFlips(player, opponent, square), flips));
+			}
+
+			nodes += verify(opponent & ~flips, player | flips | (1L << square), depth - 1);
+		}
+
+		return nodes;
+	}
+
+	/**
+	 * Counts the positions on a board of any size on one thread, with the moves of {@link BitBoard} that work on sets of
+	 * longs. Boards other than 8x8 have no known counts, so {@link #verify(BitBoard, Team, int)} is what checks them.
+	 *
+	 * @param bitBoard The board to count from, which is moved on and taken back so that it ends as it started.
+	 * @param team The team that is moving.
+	 * @param depth The amount of moves to play.
+	 * @return The amount of positions.
+	 */
+	public static long count(BitBoard bitBoard, Team team, int depth)
+	{
+		return count(bitBoard, team, depth, createSets(bitBoard, depth), createSets(bitBoard, depth), false);
+	}
+
+	/**
+	 * Counts the positions on a board of any size and checks every move list and every flip of {@link BitBoard} against a
+	 * generator written straight from the rules for that size.
+	 *
+	 * @param bitBoard The board to count from, which is moved on and taken back so that it ends as it started.
+	 * @param team The team that is moving.
+	 * @param depth The amount of moves to play.
+	 * @return The amount of positions.
+	 * @throws IllegalStateException If the generators disagree.
+	 */
+	public static long verify(BitBoard bitBoard, Team team, int depth)
+	{
+		return count(bitBoard, team, depth, createSets(bitBoard, depth), createSets(bitBoard, depth), true);
+	}
+
+	private static long[][] createSets(BitBoard bitBoard, int depth)
+	{
+		return new long[depth + 1][bitBoard.getWords()];
+	}
+
+	private static long count(BitBoard bitBoard, Team team, int depth, long[][] moves, long[][] flips, boolean verify)
+	{
+		if (depth == 0) return 1;
+
+		Team other = team == Team.BLACK ? Team.WHITE : Team.BLACK;
+		long[] set = moves[depth];
+		bitBoard.getMoves(team, set);
+
+		if (verify)
+		{
+			long[] expected = bitBoard.createSet();
+
+			for (int square = 0; square < bitBoard.getWidth() * bitBoard.getHeight(); square++)
+			{
+				if (getNaiveFlips(bitBoard, team, square, flips[depth]) != 0) expected[square >>> 6] |= 1L << square;
+			}
+
+			if (!Arrays.equals(set, expected))
+			{
+				throw new IllegalStateException(String.format("Moves differ on a %dx%d board for %s: %s, expected %s", bitBoard.getWidth(), bitBoard.getHeight(), team, Arrays.toString(set), Arrays.toString(expected)));
+			}
+		}
+
+		if (BitBoard.isEmpty(set))
+		{
+			if (!bitBoard.hasMoves(other)) return 1;
+
+			return count(bitBoard, other, depth - 1, moves, flips, verify);
+		}
+
+		if (depth == 1 && !verify) return BitBoard.count(set);
+
+		long nodes = 0;
+
+		for (int square = BitBoard.next(set, 0); square != -1; square = BitBoard.next(set, square + 1))
+		{
+			bitBoard.getFlips(team, square, flips[depth]);
+
+			if (verify)
+			{
+				long[] expected = bitBoard.createSet();
+				getNaiveFlips(bitBoard, team, square, expected);
+
+				if (!Arrays.equals(flips[depth], expected))
+				{
+					throw new IllegalStateException(String.format("Flips differ on a %dx%d board for %s at %s: %s, expected %s", bitBoard.getWidth(), bitBoard.getHeight(), team, BitBoard.getName(square, bitBoard.getWidth()), Arrays.toString(flips[depth]), Arrays.toString(expected)));
+				}
+			}
+
+			bitBoard.move(team, square, flips[depth]);
+			nodes += count(bitBoard, other, depth - 1, moves, flips, verify);
+			bitBoard.undo(team, square, flips[depth]);
+		}
+
+		return nodes;
+	}
+
+	/**
+	 * @param flips Set to the pieces that would be flipped.
+	 * @return The amount of pieces that would be flipped.
+	 */
+	private static int getNaiveFlips(BitBoard bitBoard, Team team, int square, long[] flips)
+	{
+		Arrays.fill(flips, 0);
+
+		if (bitBoard.getTeam(square) != null) return 0;
+
+		int width = bitBoard.getWidth();
+		int height = bitBoard.getHeight();
+		Team other = team == Team.BLACK ? Team.WHITE : Team.BLACK;
+		int count = 0;
+
+		for (int dx = -1; dx <= 1; dx++)
+		{
+			for (int dy = -1; dy <= 1; dy++)
+			{
+				if (dx == 0 && dy == 0) continue;
+
+				int x = square % width + dx;
+				int y = square / width + dy;
+				int length = 0;
+
+				while (x >= 0 && x < width && y >= 0 && y < height && bitBoard.getTeam(y * width + x) == other)
+				{
+					x += dx;
+					y += dy;
+					length++;
+				}
+
+				if (length == 0 || x < 0 || x >= width || y < 0 || y >= height || bitBoard.getTeam(y * width + x) != team) continue;
+
+				for (int i = 0; i < length; i++)
+				{
+					x -= dx;
+					y -= dy;
+					flips[(y * width + x) >>> 6] |= 1L << (y * width + x);
+				}
+
+				count += length;
+			}
+		}
+
+		return count;
+	}
+
+	private static long getNaiveFlips(long player, long opponent, int square)
+	{
+		if (((player | opponent) & (1L << square)) != 0) return 0;
+
+		long flips = 0;
+
+		for (int dx = -1; dx <= 1; dx++)
+		{
+			for (int dy = -1; dy <= 1; dy++)
+			{
+				if (dx == 0 && dy == 0) continue;
+
+				long line = 0;
+				int x = square % 8 + dx;
+				int y = square / 8 + dy;
+
+				while (x >= 0 && x < 8 && y >= 0 && y < 8 && (opponent & (1L << (y * 8 + x))) != 0)
+				{
+					line |= 1L << (y * 8 + x);
+					x += dx;
+					y += dy;
+				}
+
+				if (x >= 0 && x < 8 && y >= 0 && y < 8 && (player & (1L << (y * 8 + x))) != 0)
+				{
+					flips |= line;
+				}
+			}
+		}
+
+		return flips;
+	}
+
+	private static class CountTask extends RecursiveTask<Long>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final long player;
+
+		private final long opponent;
+
+		private final int depth;
+
+		CountTask(long player, long opponent, int depth)
+		{
+			this.player = player;
+			this.opponent = opponent;
+			this.depth = depth;
+		}
+
+		@Override
+		protected Long compute()
+		{
+			if (depth <= SPLIT_DEPTH) return count(player, opponent, depth);
+
+			long moves = BitBoard.getMoves(player, opponent);
+
+			if (moves == 0)
+			{
+				if (BitBoard.getMoves(opponent, player) == 0) return 1L;
+
+				return new CountTask(opponent, player, depth - 1).compute();
+			}
+
+			List<CountTask> tasks = new ArrayList<>();
+
+			for (; moves != 0; moves &= moves - 1)
+			{
+				int square = Long.numberOfTrailingZeros(moves);
+				long flips = BitBoard.getFlips(player, opponent, square);
+
+				tasks.add(new CountTask(opponent & ~flips, player | flips | (1L << square), depth - 1));
+			}
+
+			long nodes = 0;
+
+			for (CountTask task : invokeAll(tasks))
+			{
+				nodes += task.join();
+			}
+
+			return nodes;
+		}
+	}
+
+	/**
+	 * Counts the positions from the start for every depth up to the one given and compares them to the known counts. The
+	 * standard board is counted on every thread with single longs. With a size the board is counted on one thread with the
+	 * sets of longs instead, which on 8x8 still has the known counts to compare against and on other sizes is checked by
+	 * "verify".
+	 *
+	 * @param args The deepest depth (default 11), the amount of threads (default all of them), "verify" to check every
+	 *             move against the simple generator as well, which is much slower, or anything else to only count, and
+	 *             the size of the board such as 10x6 (default the standard board).
+	 */
+	public static void main(String... args)
+	{
+		int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 11;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		boolean verify = args.length > 2 && args[2].equals("verify");
+		String[] size = args.length > 3 ? args[3].split("x") : null;
+
+		Board board = size != null ? BoardFactory.createBoard(Integer.parseInt(size[0]), Integer.parseInt(size[1])) : BoardFactory.createStandardBoard();
+		BitBoard bitBoard = board.getBitBoard();
+		Team turn = board.getTurn();
+		boolean standard = bitBoard.getWidth() == BitBoard.SIZE && bitBoard.getHeight() == BitBoard.SIZE;
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		boolean passed = true;
+
+		for (int depth = 1; depth <= maxDepth; depth++)
+		{
+			long start = System.nanoTime();
+			long nodes;
+
+			if (size != null)
+			{
+				nodes = verify ? verify(bitBoard, turn, depth) : count(bitBoard, turn, depth);
+			}
+			else
+			{
+				long player = bitBoard.getPieces(turn);
+				long opponent = bitBoard.getPieces(turn == Team.BLACK ? Team.WHITE : Team.BLACK);
+
+				nodes = verify ? verify(player, opponent, depth) : count(pool, player, opponent, depth);
+			}
+
+			long nanos = System.nanoTime() - start;
+			boolean known = standard && depth < COUNTS.length;
+			boolean correct = !known || nodes == COUNTS[depth];
+
+			passed &= correct;
+			System.out.printf("Depth %2d: %,20d  %8.3fs  %,15.0f nodes/s  %s%n", depth, nodes, nanos / 1e9, nodes * 1e9 / Math.max(1, nanos), !known ? verify ? "verified" : "unknown" : correct ? "ok" : "expected " + COUNTS[depth]);
+		}
+
+		pool.shutdown();
+
+		if (!passed) System.exit(1);
+	}
+}
@@ -2,52 +2,69 @@ package com.othello.game;
 
 import java.awt.Point;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.Executor;
 
-import com.othello.Othello;
-import com.othello.animation.Callback;
-import com.othello.animation.impl.MoveAnimation;
-import com.othello.gui.JBoard;
+import com.othello.ai.Search;
+import com.othello.jfr.MoveGenerationEvent;
 
 public class Rules
 {
 	private Board board;
-	private final Move[] directions =
-		{
-				new Move(1, 0),
-				new Move(1, 1),
-				new Move(0, 1),
-				new Move(-1, 1),
-				new Move(-1, 0),
-				new Move(-1, -1),
-				new Move(0, -1),
-				new Move(1, -1)
-		};
-	
+
+	/**
+	 * Created the first time it is needed, boards made only to look at positions never pay for a transposition table.
+	 */
+	private Search search;
+
+	/**
+	 * Runs the AI. By default it runs straight away on whichever thread finished the turn, the window gives it a thread of
+	 * its own so that thinking doesn't hold up the animations.
+	 */
+	private Executor executor = Runnable::run;
+
+	/**
+	 * Whether the AI searches on the other team's time, see {@link #ponder()}.
+	 */
+	private boolean pondering;
 	private final List<Point> validMoves = new ArrayList<>();
 
+	/**
+	 * The pieces flipped by the move being looked at, sized for the board.
+	 */
+	private long[] flips;
+
 	public void setBoard(Board board)
 	{
 		this.board = board;
+		this.flips = board.getBitBoard().createSet();
 	}
 
 	public void updateValidMoves()
 	{
+		MoveGenerationEvent event = new MoveGenerationEvent();
+		event.begin();
+
 		synchronized (getValidMoves())
 		{
 			validMoves.clear();
 
-			for (Point point : board.getPoints())
+			BitBoard bitBoard = board.getBitBoard();
+			long[] moves = board.getMobility();
+
+			for (int square = BitBoard.next(moves, 0); square != -1; square = BitBoard.next(moves, square + 1))
 			{
-				if (!board.getRules().canPlace(board.getTurn(), point)) continue;
-				
-				validMoves.add(point);
+				validMoves.add(bitBoard.toPoint(square));
 			}
-			
-			System.out.println(validMoves.size());
+		}
+
+		event.end();
+
+		if (event.shouldCommit())
+		{
+			event.team = board.getTurn().name();
+			event.moves = validMoves.size();
+			event.commit();
 		}
 	}
 	
@@ -58,200 +75,123 @@ public class Rules
 	
 	public boolean canPlace(Team team, Point target)
 	{
-		return team == board.getTurn() && !(target.getX() < 0 || target.getX() > board.getWidth() || target.getY() > board.getHeight()) && !board.getPointToPieces().containsKey(target) && !getMoves(target).isEmpty();
-	}
+		if (team != board.getTurn()) return false;
+
+		int square = board.getBitBoard().getSquare(target);
 
-	private int getMoveLength(Point point, Move move, Team team)
+		return square != -1 && BitBoard.contains(board.getMobility(), square);
+	}
+	
+	public void setSearch(Search search)
 	{
-		int length = 0;
-		Point lastPoint = point;
-		while (true)
-		{
-			lastPoint = new Point((int) (lastPoint.getX() + move.getDx()), (int) (lastPoint.getY() + move.getDy()));
-			Piece piece = board.getPiece(lastPoint);
-			
-			length++;
-			
-			if (piece == null) return -1;
-			if (piece.getTeam() == team) return length;
-		}
+		this.search = search;
 	}
 
-	private Map<Move, Integer> getMoves(Point point)
+	public Search getSearch()
 	{
-		Map<Move, Integer> validMoves = new HashMap<>();
+		if (search == null) search = new Search();
 
-		for (Move move : directions)
-		{
-			Point target = new Point((int) (point.getX() + move.getDx()), (int) (point.getY() + move.getDy()));
-			Piece piece = board.getPiece(target);
-			
-			if (piece != null && piece.getTeam() != board.getTurn() && getMoveLength(point, move, board.getTurn()) >= 2)
-			{
-				validMoves.put(move, getMoveLength(point, move, board.getTurn()));
-			}
-		}
+		return search;
+	}
 
-		if (validMoves.isEmpty())
-		{
-			board.updateCount();
+	public void setExecutor(Executor executor)
+	{
+		this.executor = executor;
+	}
 
-			//board.setWinner(board.getWhite() > board.getBlack() ? Team.WHITE : Team.BLACK);
-		}
+	/**
+	 * @param pondering Whether the AI keeps searching while a person is choosing a move, which makes its next move better
+	 *                  at the cost of keeping the processor busy.
+	 */
+	public void setPondering(boolean pondering)
+	{
+		this.pondering = pondering;
 
-		return validMoves;
+		if (!pondering) stopPondering();
 	}
-	
-	public void runAI()
+
+	public boolean isPondering()
 	{
-		Point bestPoint = null;
-		int flipped = -1;
-		
-		for (Point point : board.getPoints())
-		{
-			if (board.getPiece(point) != null) continue;
-			
-			int i = -1;
-			
-			for (Entry<Move, Integer> entry : getMoves(point).entrySet())
-			{
-				i += entry.getValue();
-			}
-			
-			if (i > flipped)
-			{
-				flipped = i;
-				bestPoint = point;
-			}
-		}
-		
-		System.out.println("Best: " + bestPoint);
-		
-		if (bestPoint != null)
-		{
-			board.move(bestPoint);
-		}
+		return pondering;
 	}
 
-	public void move(Team team, Point target)
+	/**
+	 * Starts searching the position for the team whose turn it is in the background, if pondering is turned on. The search
+	 * goes into the transposition table so that the AI's search after the move finds it, and is stopped by
+	 * {@link #stopPondering()} or the AI's next search. Only standard boards are pondered on, other sizes have no
+	 * transposition table to fill.
+	 */
+	public void ponder()
 	{
-		placePiece(team, target, 0);
+		BitBoard bitBoard = board.getBitBoard();
 
-		Map<Move, Integer> moves = getMoves(target);
+		if (!pondering || bitBoard.getWidth() != BitBoard.SIZE || bitBoard.getHeight() != BitBoard.SIZE) return;
 
-		int index = 0;
-		for (Entry<Move, Integer> move : moves.entrySet())
-		{
-			Point lastPoint = (Point) target.clone();
-			for (int i = 0; i < move.getValue(); i++)
-			{				
-				lastPoint = new Point((int) (lastPoint.getX() + move.getKey().getDx()), (int) (lastPoint.getY() + move.getKey().getDy()));
-				Piece piece = board.getPiece(lastPoint);
-
-				if (piece != null && piece.getTeam() != board.getTurn())
-				{
-					final Team finalTeam = board.getTurn();
-					final int finalIndex = index;
+		Team turn = board.getTurn();
+		getSearch().ponder(bitBoard.getPieces(turn), bitBoard.getPieces(turn == Team.BLACK ? Team.WHITE : Team.BLACK), turn);
+	}
 
-					placePiece(finalTeam, lastPoint, (finalIndex) * 45);
-					piece.setTeam(finalTeam);
-					index++;
-				}
-			}
-		}
-		Othello.getInstance().getLastBoard().repaint();
+	/**
+	 * Stops pondering, if the AI is.
+	 */
+	public void stopPondering()
+	{
+		if (search != null) search.stopPondering();
 	}
 
-	private void placePiece(Team team, Point target, long delay)
+	/**
+	 * Lets the AI move for the team whose turn it is. Standard boards get the full search, other sizes a simpler one, see
+	 * {@link Search#search(BitBoard, Team)}.
+	 */
+	public void runAI()
 	{
-		JBoard jBoard = Othello.getInstance().getLastBoard();
-		Piece piece = board.getPiece(target);
+		executor.execute(this::think);
+	}
 
-		Vector2D targetPieceLocation = jBoard.getGuiCoordsFromPoint(target);
-		targetPieceLocation.translate(((jBoard.getSlotSize() - Piece.getPieceSize(Othello.getInstance().getLastBoard().getSize(), board.getWidth())) / 2), ((jBoard.getSlotSize() - Piece.getPieceSize(Othello.getInstance().getLastBoard().getSize(), board.getWidth())) / 2));
+	private void think()
+	{
+		BitBoard bitBoard = board.getBitBoard();
+		int bestSquare = getSearch().search(bitBoard, board.getTurn()).getMove();
 
-		if (piece != null)
+		if (bestSquare != -1)
 		{
-			piece.queueAnimation(new MoveAnimation(275, delay, targetPieceLocation, getTeamSpawn(piece.getTeam()), piece.getTeam(), new Callback()
-			{
-				@Override
-				public void onComplete()
-				{
-					board.setWinner(board.updateCount());
-					Othello.getInstance().repaint();
-				}
+			board.move(bitBoard.toPoint(bestSquare));
+		}
+	}
 
-				@Override
-				public void onStart() {}
-			}));
-			
-			piece.setTeam(team);
-			
-			MoveAnimation moveAnimation = new MoveAnimation(275, piece == null ? delay : 0, getTeamSpawn(team), targetPieceLocation, team, new Callback()
-			{
-				@Override
-				public void onComplete()
-				{
-					board.setWinner(board.updateCount());
-					Othello.getInstance().repaint();
-				}
+	public void move(Team team, Point target)
+	{
+		BitBoard bitBoard = board.getBitBoard();
+		int square = bitBoard.getSquare(target);
+		bitBoard.getFlips(team, square, flips);
 
-				@Override
-				public void onStart() {}
-			});
-			
-			moveAnimation.setFinalCallback(new Callback()
-			{
-				@Override
-				public void onComplete()
-				{
-					board.turnFinish(piece);
-				}
+		board.applyMove(team, square, flips);
+		Piece placed = board.placePiece(target, new Piece(team));
 
-				@Override
-				public void onStart() {}
-			});
-			
-			piece.queueAnimation(moveAnimation);
+		for (BoardListener listener : board.getListeners())
+		{
+			listener.onPiecePlaced(target, placed);
 		}
-		else
+
+		int index = 0;
+		for (int flip = BitBoard.next(flips, 0); flip != -1; flip = BitBoard.next(flips, flip + 1))
 		{
-			final Piece finalPiece = new Piece(team);
-			MoveAnimation moveAnimation = new MoveAnimation(275, piece == null ? delay : 0, getTeamSpawn(team), targetPieceLocation, team, new Callback()
-			{
-				@Override
-				public void onComplete()
-				{
-					board.setWinner(board.updateCount());
-					Othello.getInstance().repaint();
-				}
+			Point point = bitBoard.toPoint(flip);
+
+			Piece piece = board.getPiece(point);
 
-				@Override
-				public void onStart() {}
-			});
-			
-			moveAnimation.setFinalCallback(new Callback()
+			if (piece != null)
 			{
-				@Override
-				public void onComplete()
+				Team previous = piece.getTeam();
+				piece.setTeam(team);
+
+				for (BoardListener listener : board.getListeners())
 				{
-					board.turnFinish(finalPiece);
+					listener.onPieceFlipped(point, piece, previous, index);
 				}
-
-				@Override
-				public void onStart() {}
-			});
-			
-			finalPiece.queueAnimation(moveAnimation);
-			board.placePiece(target, finalPiece);
+				index++;
+			}
 		}
-	}
-
-	private Vector2D getTeamSpawn(Team team)
-	{
-		double slotSize = Othello.getInstance().getLastBoard().getSlotSize();
-		JBoard jBoard = Othello.getInstance().getLastBoard();
-		
-		return new Vector2D(jBoard.getBoardWidth() + (jBoard.getInfoWidth() - jBoard.getPieceSize()) / 2, slotSize * (team == Team.WHITE ? 0.5 : board.getHeight() - 1.5));
+		board.getListeners().forEach(BoardListener::onUpdate);
 	}
 }
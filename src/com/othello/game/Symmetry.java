@@ -0,0 +1,181 @@
+package com.othello.game;
+
+/**
+ * The eight symmetries of the standard board: turning it a quarter turn at a time and mirroring it. Positions that are
+ * the same apart from a symmetry play the same, so anything that stores positions can store one of them for all eight. The
+ * canonical form of a position is the one whose black and then white pieces are the smallest numbers, which gives the same
+ * form and so the same hash whichever symmetry of it is looked up.
+ * <p>
+ * Each symmetry is a number from 0 to 7 built from three bits: bit 2 transposes the board along the diagonal from the top
+ * left corner, then bit 0 mirrors it left to right and bit 1 mirrors it top to bottom. 0 leaves the board as it is.
+ *
+ * @version 1.0.0
+ */
+public final class Symmetry
+{
+	public static final int COUNT = 8;
+
+	public static final int IDENTITY = 0;
+
+	private static final int MIRROR = 1;
+
+	private static final int FLIP = 2;
+
+	private static final int TRANSPOSE = 4;
+
+	/**
+	 * Where each slot ends up under each symmetry.
+	 */
+	private static final byte[][] SQUARES = new byte[COUNT][64];
+
+	static
+	{
+		for (int symmetry = 0; symmetry < COUNT; symmetry++)
+		{
+			for (int square = 0; square < 64; square++)
+			{
+				SQUARES[symmetry][square] = (byte) Long.numberOfTrailingZeros(transform(1L << square, symmetry));
+			}
+		}
+	}
+
+	private Symmetry()
+	{
+	}
+
+	/**
+	 * @param pieces Slots on the standard board.
+	 * @param symmetry The symmetry.
+	 * @return The slots moved by the symmetry.
+	 */
+	public static long transform(long pieces, int symmetry)
+	{
+		if ((symmetry & TRANSPOSE) != 0) pieces = transpose(pieces);
+		if ((symmetry & MIRROR) != 0) pieces = mirror(pieces);
+		if ((symmetry & FLIP) != 0) pieces = flip(pieces);
+
+		return pieces;
+	}
+
+	/**
+	 * @param square A slot on the standard board.
+	 * @param symmetry The symmetry.
+	 * @return Where the slot ends up.
+	 */
+	public static int transformSquare(int square, int symmetry)
+	{
+		return SQUARES[symmetry][square];
+	}
+
+	/**
+	 * @param symmetry A symmetry.
+	 * @return The symmetry that undoes it.
+	 */
+	public static int inverse(int symmetry)
+	{
+		//Mirroring left to right after a transpose is the same as mirroring top to bottom before it, so undoing a symmetry
+		//with a transpose swaps the two mirrors.
+		if ((symmetry & TRANSPOSE) == 0) return symmetry;
+
+		return TRANSPOSE | (symmetry & MIRROR) << 1 | (symmetry & FLIP) >>> 1;
+	}
+
+	/**
+	 * Finds the symmetry that turns a position into its canonical form.
+	 *
+	 * @param black The black pieces.
+	 * @param white The white pieces.
+	 * @return The symmetry, if several give the canonical form the lowest of them.
+	 */
+	public static int getCanonical(long black, long white)
+	{
+		int best = IDENTITY;
+		long bestBlack = black;
+		long bestWhite = white;
+
+		for (int symmetry = 1; symmetry < COUNT; symmetry++)
+		{
+			long transformedBlack = transform(black, symmetry);
+
+			if (Long.compareUnsigned(transformedBlack, bestBlack) > 0) continue;
+
+			long transformedWhite = transform(white, symmetry);
+
+			if (transformedBlack != bestBlack || Long.compareUnsigned(transformedWhite, bestWhite) < 0)
+			{
+				best = symmetry;
+				bestBlack = transformedBlack;
+				bestWhite = transformedWhite;
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Hashes a position after turning it with a symmetry.
+	 *
+	 * @param black The black pieces.
+	 * @param white The white pieces.
+	 * @param turn The team that is moving.
+	 * @param symmetry The symmetry, usually from {@link #getCanonical(long, long)}.
+	 * @return The Zobrist hash of the turned position.
+	 */
+	public static long hash(long black, long white, Team turn, int symmetry)
+	{
+		return Zobrist.hash(transform(black, symmetry), transform(white, symmetry), turn);
+	}
+
+	/**
+	 * @param black The black pieces.
+	 * @param white The white pieces.
+	 * @param turn The team that is moving.
+	 * @return The Zobrist hash of the canonical form of the position, the same for all eight symmetries of it.
+	 */
+	public static long hash(long black, long white, Team turn)
+	{
+		return hash(black, white, turn, getCanonical(black, white));
+	}
+
+	/**
+	 * Turns the board a quarter turn, the top edge becomes the left edge.
+	 */
+	public static long rotate(long pieces)
+	{
+		return flip(transpose(pieces));
+	}
+
+	/**
+	 * Mirrors the board along the diagonal from the top left to the bottom right corner.
+	 */
+	public static long transpose(long pieces)
+	{
+		long swap = 0x0F0F0F0F00000000L & (pieces ^ (pieces << 28));
+		pieces ^= swap ^ (swap >>> 28);
+		swap = 0x3333000033330000L & (pieces ^ (pieces << 14));
+		pieces ^= swap ^ (swap >>> 14);
+		swap = 0x5500550055005500L & (pieces ^ (pieces << 7));
+		pieces ^= swap ^ (swap >>> 7);
+
+		return pieces;
+	}
+
+	/**
+	 * Mirrors the board left to right by reversing the bits of every row.
+	 */
+	public static long mirror(long pieces)
+	{
+		pieces = (pieces >>> 1 & 0x5555555555555555L) | (pieces & 0x5555555555555555L) << 1;
+		pieces = (pieces >>> 2 & 0x3333333333333333L) | (pieces & 0x3333333333333333L) << 2;
+
+		return (pieces >>> 4 & 0x0F0F0F0F0F0F0F0FL) | (pieces & 0x0F0F0F0F0F0F0F0FL) << 4;
+	}
+
+	/**
+	 * Mirrors the board top to bottom, every row is a byte so this just reverses them.
+	 */
+	public static long flip(long pieces)
+	{
+		return Long.reverseBytes(pieces);
+	}
+}
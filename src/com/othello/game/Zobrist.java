@@ -0,0 +1,153 @@
+package com.othello.game;
+
+/**
+ * Zobrist keys for hashing positions. The hash of a position is the xor of a key for every piece on the board and a key
+ * for when white is moving, which means a move only has to xor in the slot that was placed on, the slots that were flipped
+ * and the side key instead of hashing the whole board again.
+ * <p>
+ * The keys are generated from a fixed seed so that hashes stay the same between runs and can be stored in files. Boards
+ * with more than 64 slots work out the keys of the extra slots from the seed when they are needed.
+ *
+ * @version 1.0.0
+ */
+public final class Zobrist
+{
+	/**
+	 * The key of a piece on each slot, indexed by the ordinal of its team and then by slot.
+	 */
+	private static final long[][] PIECES = new long[Team.values().length][64];
+
+	/**
+	 * The key of each slot changing teams, the xor of the black and white keys of that slot.
+	 */
+	private static final long[] FLIPS = new long[64];
+
+	/**
+	 * Xored in when white is the team moving.
+	 */
+	public static final long WHITE_TO_MOVE;
+
+	/**
+	 * Where the keys of slots past the first 64 start counting from, far enough from the seed that they never meet the
+	 * stored keys.
+	 */
+	private static final long LARGE_SEED = 0x4C61726765L << 32;
+
+	static
+	{
+		long seed = 0x4F7468656C6C6FL;
+
+		for (long[] keys : PIECES)
+		{
+			for (int square = 0; square < keys.length; square++)
+			{
+				keys[square] = mix(seed += 0x9E3779B97F4A7C15L);
+			}
+		}
+
+		for (int square = 0; square < FLIPS.length; square++)
+		{
+			FLIPS[square] = PIECES[Team.BLACK.ordinal()][square] ^ PIECES[Team.WHITE.ordinal()][square];
+		}
+
+		WHITE_TO_MOVE = mix(seed + 0x9E3779B97F4A7C15L);
+	}
+
+	private Zobrist()
+	{
+	}
+
+	/**
+	 * The finaliser of SplitMix64, used to turn a counter into well spread keys.
+	 */
+	private static long mix(long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Hashes a position from scratch.
+	 *
+	 * @param black The black pieces.
+	 * @param white The white pieces.
+	 * @param turn The team that is moving.
+	 * @return The hash of the position.
+	 */
+	public static long hash(long black, long white, Team turn)
+	{
+		long hash = turn == Team.WHITE ? WHITE_TO_MOVE : 0;
+
+		for (long pieces = black; pieces != 0; pieces &= pieces - 1)
+		{
+			hash ^= PIECES[Team.BLACK.ordinal()][Long.numberOfTrailingZeros(pieces)];
+		}
+		for (long pieces = white; pieces != 0; pieces &= pieces - 1)
+		{
+			hash ^= PIECES[Team.WHITE.ordinal()][Long.numberOfTrailingZeros(pieces)];
+		}
+
+		return hash;
+	}
+
+	/**
+	 * @param team The ordinal of the team.
+	 * @param square The slot.
+	 * @return The key of a piece of the team on the slot.
+	 */
+	public static long getPieceKey(int team, int square)
+	{
+		if (square < 64) return PIECES[team][square];
+
+		return mix(LARGE_SEED + (square * 2L + team) * 0x9E3779B97F4A7C15L);
+	}
+
+	/**
+	 * @param square The slot.
+	 * @return The key of a piece on the slot changing teams.
+	 */
+	public static long getFlipKey(int square)
+	{
+		if (square < 64) return FLIPS[square];
+
+		return getPieceKey(Team.BLACK.ordinal(), square) ^ getPieceKey(Team.WHITE.ordinal(), square);
+	}
+
+	/**
+	 * Positions on boards of different sizes can have the same pieces, so anything that stores hashes of more than one size
+	 * of board xors in this key to tell them apart.
+	 *
+	 * @param width The width of the board.
+	 * @param height The height of the board.
+	 * @return The key of the size, which is 0 for the standard board so that its hashes stay the same.
+	 */
+	public static long getSizeKey(int width, int height)
+	{
+		if (width == BitBoard.SIZE && height == BitBoard.SIZE) return 0;
+
+		return mix(LARGE_SEED - ((long) width << 32 | height) * 0x9E3779B97F4A7C15L);
+	}
+
+	/**
+	 * Works out what has to be xored into a hash for a move. The side key is included so the result can be applied directly
+	 * to the hash of the position before the move.
+	 *
+	 * @param team The ordinal of the team that is moving.
+	 * @param square The slot placed on.
+	 * @param flips The pieces that were flipped.
+	 * @return The change in the hash.
+	 */
+	public static long getMoveKey(int team, int square, long flips)
+	{
+		long key = PIECES[team][square] ^ WHITE_TO_MOVE;
+
+		for (; flips != 0; flips &= flips - 1)
+		{
+			key ^= FLIPS[Long.numberOfTrailingZeros(flips)];
+		}
+
+		return key;
+	}
+}
@@ -6,36 +6,70 @@ import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
-import java.util.HashMap;
+import java.awt.image.BufferedImage;
 import java.util.Map;
 
+import javax.swing.AbstractAction;
 import javax.swing.JComponent;
-import javax.swing.SwingUtilities;
+import javax.swing.KeyStroke;
 
 import com.othello.Othello;
-import com.othello.animation.Animation;
-import com.othello.animation.Callback;
-import com.othello.animation.impl.MoveAnimation;
+import com.othello.animation.impl.Timeline;
 import com.othello.game.Board;
+import com.othello.game.BoardListener;
 import com.othello.game.Piece;
 import com.othello.game.Team;
 import com.othello.game.Vector2D;
+import com.othello.jfr.PaintEvent;
 
 public class JBoard extends JComponent
 {
 	private static final double RIGHT_MARGIN = .20f;
 
+	private static final Color BOARD_COLOR = new Color(19, 127, 63);
+
+	private static final Color VALID_MOVE_COLOR = new Color(20, 20, 20, 25);
+
+	private static final Color TURN_COLOR = new Color(0, 255, 0);
+
+	private static final Font WINNER_FONT = new Font("Lato", 0, 20);
+
 	private final Board board;
 
-	private final Map<Piece, MoveAnimation> animatingPieces = new HashMap<>();
+	/**
+	 * Every piece that is moving around the board.
+	 */
+	private final Timeline timeline = new Timeline(Othello.getInstance().getAnimationManager());
+
+	/**
+	 * Everything that changes is drawn through this so that the screen is drawn at most once a frame.
+	 */
+	private final RepaintPump repaintPump = new RepaintPump(this);
+
+	/**
+	 * The sizes for the current size of the component.
+	 */
+	private Layout layout;
+
+	/**
+	 * The slots and the background of the info panel, which only change when the component is resized.
+	 */
+	private BufferedImage background;
 
 	public JBoard(Board board)
 	{
 		this.board = board;
 		new MouseUtil();
+		new AnimationUtil();
+		new KeyUtil();
 	}
 
 	@Override
@@ -46,92 +80,137 @@ public class JBoard extends JComponent
 	@Override
 	public void paintComponent(Graphics g)
 	{
+		PaintEvent event = new PaintEvent();
+		event.begin();
+
+		Layout layout = getBoardLayout();
+
 		((Graphics2D) g).setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-		paintBoard(g);
-		paintInfo(g);
-		paintPieces(g);
-		paintValidMoves(g);
-		paintWinner(g);
+		g.drawImage(getBackground(layout), 0, 0, null);
+		paintInfo(g, layout);
+		paintPieces(g, layout);
+		paintValidMoves(g, layout);
+		paintWinner(g, layout);
+
+		event.end();
+
+		if (event.shouldCommit())
+		{
+			Rectangle clip = g.getClipBounds();
+
+			event.width = clip == null ? getWidth() : clip.width;
+			event.height = clip == null ? getHeight() : clip.height;
+			event.animating = timeline.getSize();
+			event.frames = repaintPump.getFrames();
+			event.droppedFrames = repaintPump.getDroppedFrames();
+			event.commit();
+		}
 	}
 
-	public Map<Piece, MoveAnimation> getAnimatingPieces()
+	public Timeline getTimeline()
 	{
-		return animatingPieces;
+		return timeline;
 	}
 
-	private void paintBoard(Graphics g)
+	/**
+	 * @return The sizes for the current size of the component, worked out again only if it has been resized.
+	 */
+	private Layout getBoardLayout()
 	{
-		for (Point point : board.getPoints())
+		Layout layout = this.layout;
+
+		if (layout == null || !layout.isFor(getWidth(), getHeight()))
 		{
-			drawSlot(g, point);
+			layout = new Layout(getWidth(), getHeight(), Math.max(board.getWidth(), board.getHeight()), RIGHT_MARGIN);
+			this.layout = layout;
 		}
+
+		return layout;
 	}
 
-	private void paintPieces(Graphics g)
+	/**
+	 * @return The slots and the info panel background, drawn again only if the component has been resized.
+	 */
+	private BufferedImage getBackground(Layout layout)
 	{
-		synchronized (board.getPointToPieces())
+		if (background == null || background.getWidth() != Math.max(1, layout.width) || background.getHeight() != Math.max(1, layout.height))
 		{
-			board.getPointToPieces().entrySet().stream().filter(entry -> !(animatingPieces.containsKey(entry.getValue()) || entry.getValue().hasNextAnimation())).forEach(entry ->
+			background = getGraphicsConfiguration() != null
+					? getGraphicsConfiguration().createCompatibleImage(Math.max(1, layout.width), Math.max(1, layout.height), Transparency.TRANSLUCENT)
+					: new BufferedImage(Math.max(1, layout.width), Math.max(1, layout.height), BufferedImage.TYPE_INT_ARGB);
+
+			Graphics2D g = background.createGraphics();
+
+			for (Point point : board.getPoints())
 			{
-				g.setColor(entry.getValue().getTeam().getColor());
-				drawPiece(g, (Point) entry.getKey().clone());
-			});
+				drawSlot(g, layout, point);
+			}
+
+			g.setColor(BOARD_COLOR);
+			g.fillRect((int) layout.boardWidth, 0, (int) layout.infoWidth, (int) layout.totalHeight);
+			g.dispose();
 		}
 
-		for (Point point : board.getPoints())
-		{
-			Piece piece = board.getPiece(point);
+		return background;
+	}
 
-			if (piece == null) continue;
+	private void paintPieces(Graphics g, Layout layout)
+	{
+		synchronized (board.getPointToPieces())
+		{
+			for (Map.Entry<Point, Piece> entry : board.getPointToPieces().entrySet())
+			{
+				if (timeline.isAnimating(board.getBitBoard().getSquare(entry.getKey()))) continue;
 
-			queueNextAnimation(piece);
+				g.setColor(entry.getValue().getTeam().getColor());
+				drawPiece(g, layout, entry.getKey());
+			}
+		}
 
-			if (animatingPieces.containsKey(piece))
+		synchronized (timeline)
+		{
+			for (int i = 0; i < timeline.getSize(); i++)
 			{
-				MoveAnimation animation = animatingPieces.get(piece);
+				if (!timeline.isVisible(i)) continue;
 
-				g.setColor(animation.getTeam().getColor());
-				paintPiece(g, animation.getLocation().getX(), animation.getLocation().getY(), getPieceSize(), getPieceSize());
-				SwingUtilities.invokeLater(this::repaint);
+				g.setColor(timeline.getTeam(i).getColor());
+				paintPiece(g, timeline.getX(i), timeline.getY(i), layout.pieceSize, layout.pieceSize);
 			}
 		}
 	}
 	
-	private void paintValidMoves(Graphics g)
+	private void paintValidMoves(Graphics g, Layout layout)
 	{
 		synchronized (board.getRules().getValidMoves())
 		{
+			g.setColor(VALID_MOVE_COLOR);
+
 			for (Point point : board.getRules().getValidMoves())
 			{
-				System.out.println("Point: " + point);
-				g.setColor(new Color(20, 20, 20, 25));
-				drawPiece(g, (Point) point.clone());
+				drawPiece(g, layout, point);
 			}
 		}
 	}
 
-	private void drawSlot(Graphics g, Point point)
+	private void drawSlot(Graphics g, Layout layout, Point point)
 	{
 		//Because the top left point of the board is (1, 1) we need to translate all points to the left and up by one so that they are all in the correct position.
-		//The point being used in this method is mutable, but because the board class serves a new point and not the one used in the map it does not matter if the object is transformed.
-		point.translate(-1, -1);
+		int x = (int) ((point.getX() - 1) * layout.slotSize);
+		int y = (int) ((point.getY() - 1) * layout.slotSize);
 
-		g.setColor(new Color(19, 127, 63));
-		g.fillRect((int) ((point.getX()) * getSlotSize()), (int) ((point.getY()) * getSlotSize()), (int) getSlotSize(), (int) getSlotSize());
+		g.setColor(BOARD_COLOR);
+		g.fillRect(x, y, (int) layout.slotSize, (int) layout.slotSize);
 		g.setColor(Color.WHITE);
-		g.drawRect((int) ((point.getX()) * getSlotSize()), (int) ((point.getY()) * getSlotSize()), (int) getSlotSize(), (int) getSlotSize());
+		g.drawRect(x, y, (int) layout.slotSize, (int) layout.slotSize);
 	}
 
-	private void drawPiece(Graphics g, Point point)
+	private void drawPiece(Graphics g, Layout layout, Point point)
 	{
-		point.translate(-1, -1);
+		double x = (point.getX() - 1) * layout.slotSize + layout.pieceOffset;
+		double y = (point.getY() - 1) * layout.slotSize + layout.pieceOffset;
 
-		double offset = (getSlotSize() - getPieceSize()) / 2;
-		double x = point.getX() * getSlotSize() + offset;
-		double y = point.getY() * getSlotSize() + offset;
-
-		paintPiece(g, (int) (x), (int) (y), (int) getPieceSize(), (int) getPieceSize());
+		paintPiece(g, (int) (x), (int) (y), (int) layout.pieceSize, (int) layout.pieceSize);
 	}
 
 	private void paintPiece(Graphics g, double x, double y, double width, double height)
@@ -139,49 +218,20 @@ public class JBoard extends JComponent
 		g.fillOval((int) x, (int) y, (int) width, (int) height);
 	}
 
-	private void queueNextAnimation(Piece piece)
-	{
-		if (!animatingPieces.containsKey(piece) && piece.hasNextAnimation())
-		{
-			Animation animation = piece.getNextAnimation();
-
-			animation.addCallback(new Callback()
-			{
-				@Override
-				public void onComplete()
-				{
-					animatingPieces.remove(piece);
-					queueNextAnimation(piece);
-					SwingUtilities.invokeLater(JBoard.this::repaint);
-				}
-
-				@Override
-				public void onStart() {}
-			});
-
-			animatingPieces.put(piece, (MoveAnimation) animation);
-			Othello.getInstance().getAnimationManager().animate(animation);
-			SwingUtilities.invokeLater(this::repaint);
-		}
-	}
-
-	private void paintInfo(Graphics g)
+	private void paintInfo(Graphics g, Layout layout)
 	{
-		g.setColor(new Color(19, 127, 63));
-		g.fillRect((int) getBoardWidth(), 0, (int) getInfoWidth(), (int) getTotalHeight());
-
-		paintTeamInfo(g, Team.WHITE);
-		paintTeamInfo(g, Team.BLACK);
+		paintTeamInfo(g, layout, Team.WHITE);
+		paintTeamInfo(g, layout, Team.BLACK);
 	}
 
-	private void paintWinner(Graphics g)
+	private void paintWinner(Graphics g, Layout layout)
 	{
 		Team winner = board.getWinner();
 
 		if (winner != null)
 		{
 			String string = "Team " + (Team.WHITE == winner ? "white" : "black") + " won";
-			g.setFont(new Font("Lato", 0, 20));
+			g.setFont(WINNER_FONT);
 
 			double width = g.getFontMetrics().stringWidth(string);
 			double height = g.getFontMetrics().getHeight();
@@ -189,43 +239,42 @@ public class JBoard extends JComponent
 			g.setColor(Color.BLACK);
 			width *= 1.5;
 			height *= 1.75;
-			g.fillOval((int) ((getBoardWidth() / 2) - (width / 2)) - 2, (int) ((getTotalHeight() / 2) - (height / 2)) - 2, (int) width + 4, (int) height + 4);
+			g.fillOval((int) ((layout.boardWidth / 2) - (width / 2)) - 2, (int) ((layout.totalHeight / 2) - (height / 2)) - 2, (int) width + 4, (int) height + 4);
 			g.setColor(Color.WHITE);
-			g.fillOval((int) ((getBoardWidth() / 2) - (width / 2)), (int) ((getTotalHeight() / 2) - (height / 2)), (int) width, (int) height);
+			g.fillOval((int) ((layout.boardWidth / 2) - (width / 2)), (int) ((layout.totalHeight / 2) - (height / 2)), (int) width, (int) height);
 			width /= 1.5;
 			height /= 1.75;
 			g.setColor(Color.black);
-			g.drawString(string, (int) ((getBoardWidth() / 2) - (width / 2)), (int) ((getTotalHeight() / 2) + (height / 4)));
+			g.drawString(string, (int) ((layout.boardWidth / 2) - (width / 2)), (int) ((layout.totalHeight / 2) + (height / 4)));
 		}
 	}
 
-	private void paintTeamInfo(Graphics g, Team team)
+	private void paintTeamInfo(Graphics g, Layout layout, Team team)
 	{
 		Color oppositeColor = team == Team.WHITE ? Team.BLACK.getColor() : Team.WHITE.getColor();
 		Team turn = board.getTurn();
 		String text = String.valueOf(team == Team.WHITE ? board.getWhite() : board.getBlack());
-		double size = getInfoWidth() / 2;
-		double y = (Team.BLACK == team ? (getTotalHeight() - (getTotalHeight() * .05) - size) : (getTotalHeight() * .05));
+		double size = layout.counterSize;
+		double x = layout.boardWidth + (layout.infoWidth - size) / 2;
+		double y = (Team.BLACK == team ? (layout.totalHeight - (layout.totalHeight * .05) - size) : (layout.totalHeight * .05));
 
 		if (turn == team)
 		{
-			g.setColor(new Color(0, 255, 0));
-			paintPiece(g, (getBoardWidth() + (getInfoWidth() - size) / 2) - 2, y - 2, (int) size + 4, (int) size + 4);
+			g.setColor(TURN_COLOR);
+			paintPiece(g, x - 2, y - 2, (int) size + 4, (int) size + 4);
 		}
 
 		g.setColor(team.getColor());
-		paintPiece(g, getBoardWidth() + (getInfoWidth() - size) / 2, y, (int) size, (int) size);
+		paintPiece(g, x, y, (int) size, (int) size);
 		g.setColor(oppositeColor);
-		g.setFont(new Font("Lato", 0, turn == team ? (int) ((size / 4) * 1.25) : (int) (size / 4)));
+		g.setFont(turn == team ? layout.turnCounterFont : layout.counterFont);
 
-		g.drawString(text, (int) (getBoardWidth() + ((getInfoWidth() - size) / 2) + (size / 2) - (g.getFontMetrics().stringWidth(text) / 2)), (int) (y + (size / 2) + (g.getFontMetrics().getHeight() / 4)));
+		g.drawString(text, (int) (x + (size / 2) - (g.getFontMetrics().stringWidth(text) / 2)), (int) (y + (size / 2) + (g.getFontMetrics().getHeight() / 4)));
 	}
 
 	public double getPieceSize()
 	{
-		Dimension dimension = getSize();
-
-		return Piece.getPieceSize(new Dimension((int) (dimension.getWidth() * (1 - RIGHT_MARGIN)), (int) (dimension.getHeight())), board.getWidth());
+		return getBoardLayout().pieceSize;
 	}
 
 	/**
@@ -235,27 +284,27 @@ public class JBoard extends JComponent
 	 */
 	public double getSlotSize()
 	{
-		return getPieceSize() * 1.25;
+		return getBoardLayout().slotSize;
 	}
 
 	public double getInfoWidth()
 	{
-		return getTotalWidth() - getBoardWidth();
+		return getBoardLayout().infoWidth;
 	}
 
 	public double getBoardWidth()
 	{
-		return getTotalWidth() * (1 - RIGHT_MARGIN);
+		return getBoardLayout().boardWidth;
 	}
 
 	public double getTotalWidth()
 	{
-		return (Math.min(getSize().getWidth(), getSize().getHeight() / (1 - RIGHT_MARGIN)));
+		return getBoardLayout().totalWidth;
 	}
 
 	public double getTotalHeight()
 	{
-		return (Math.min(getSize().getWidth() * (1 - RIGHT_MARGIN), getSize().getHeight()));
+		return getBoardLayout().totalHeight;
 	}
 
 	public Vector2D getGuiCoordsFromPoint(Point point)
@@ -268,6 +317,151 @@ public class JBoard extends JComponent
 		return new Point((int) (x / (getSlotSize())) + 1, (int) (y / (getSlotSize()) + 1));
 	}
 
+	/**
+	 * @param point The point on the board.
+	 * @return The left edge of a piece drawn on the point.
+	 */
+	private double getPieceX(Point point)
+	{
+		Layout layout = getBoardLayout();
+
+		return (point.getX() - 1) * layout.slotSize + layout.pieceOffset;
+	}
+
+	/**
+	 * @param point The point on the board.
+	 * @return The top edge of a piece drawn on the point.
+	 */
+	private double getPieceY(Point point)
+	{
+		Layout layout = getBoardLayout();
+
+		return (point.getY() - 1) * layout.slotSize + layout.pieceOffset;
+	}
+
+	/**
+	 * Pieces of a team fly in from and out to the team's counter in the info panel.
+	 *
+	 * @param team The team of the piece.
+	 * @return The left edge of the team's counter.
+	 */
+	private double getTeamSpawnX(Team team)
+	{
+		Layout layout = getBoardLayout();
+
+		return layout.boardWidth + (layout.infoWidth - layout.pieceSize) / 2;
+	}
+
+	/**
+	 * @param team The team of the piece.
+	 * @return The top edge of the team's counter.
+	 */
+	private double getTeamSpawnY(Team team)
+	{
+		return getSlotSize() * (team == Team.WHITE ? 0.5 : board.getHeight() - 1.5);
+	}
+
+	/**
+	 * Turns the moves made on the board into animations. The turn is held until the last animation of each piece is done so
+	 * that the next team can't move while pieces are still flying around.
+	 */
+	class AnimationUtil implements BoardListener
+	{
+		/**
+		 * Finishes the turn once a piece is in place. It is made once so that moves don't allocate a hook for every piece.
+		 */
+		private final Runnable releaseTurn = board::releaseTurn;
+
+		public AnimationUtil()
+		{
+			board.addListener(this);
+			timeline.setFrameListener(this::onPieceMoved);
+		}
+
+		@Override
+		public void onPiecePlaced(Point point, Piece piece)
+		{
+			queueMove(point, piece.getTeam());
+		}
+
+		@Override
+		public void onPieceFlipped(Point point, Piece piece, Team previous, int index)
+		{
+			timeline.add(board.getBitBoard().getSquare(point), getPieceX(point), getPieceY(point), getTeamSpawnX(previous), getTeamSpawnY(previous), index * 45, 275, previous, null);
+			queueMove(point, piece.getTeam());
+		}
+
+		@Override
+		public void onUpdate()
+		{
+			repaintPump.markAllDirty();
+		}
+
+		/**
+		 * Only the area each moving piece covers is drawn again, with a pixel either side for the edges of the circle.
+		 */
+		private void onPieceMoved(double fromX, double fromY, double toX, double toY)
+		{
+			double pieceSize = getPieceSize();
+
+			repaintPump.markDirty((int) Math.min(fromX, toX) - 1, (int) Math.min(fromY, toY) - 1, (int) Math.ceil(Math.abs(toX - fromX) + pieceSize) + 3, (int) Math.ceil(Math.abs(toY - fromY) + pieceSize) + 3);
+		}
+
+		private void queueMove(Point point, Team team)
+		{
+			board.holdTurn();
+			timeline.add(board.getBitBoard().getSquare(point), getTeamSpawnX(team), getTeamSpawnY(team), getPieceX(point), getPieceY(point), 0, 275, team, releaseTurn);
+		}
+	}
+
+	/**
+	 * Takes moves back with Ctrl+Z and makes them again with Ctrl+Y. Moves made by the AI are skipped over so that it is
+	 * always a person's turn afterwards, and nothing happens while the AI is thinking.
+	 */
+	class KeyUtil
+	{
+		public KeyUtil()
+		{
+			getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK), "undo");
+			getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK), "redo");
+
+			getActionMap().put("undo", new AbstractAction()
+			{
+				@Override
+				public void actionPerformed(ActionEvent e)
+				{
+					if (isThinking() || !board.undo()) return;
+
+					while (board.isComputer(board.getTurn()) && board.canUndo())
+					{
+						board.undo();
+					}
+					board.resume();
+				}
+			});
+
+			getActionMap().put("redo", new AbstractAction()
+			{
+				@Override
+				public void actionPerformed(ActionEvent e)
+				{
+					if (isThinking() || !board.redo()) return;
+
+					while (board.isComputer(board.getTurn()) && board.canRedo())
+					{
+						board.redo();
+					}
+					board.resume();
+				}
+			});
+		}
+
+		private boolean isThinking()
+		{
+			return board.getWinner() == null && board.isComputer(board.getTurn());
+		}
+	}
+
 	class MouseUtil implements MouseListener
 	{
 		private Point pendingPoint;
@@ -0,0 +1,75 @@
+package com.othello.gui;
+
+import java.awt.Dimension;
+import java.awt.Font;
+
+import com.othello.game.Piece;
+
+/**
+ * The sizes of everything drawn by the JBoard for one size of the component. It is worked out once whenever the component
+ * is resized instead of every time something is drawn.
+ *
+ * @version 1.0.0
+ */
+class Layout
+{
+	/**
+	 * The size of the component this layout is for.
+	 */
+	final int width;
+
+	final int height;
+
+	final double pieceSize;
+
+	/**
+	 * The size of the slots that the pieces go in, this slot is 25% bigger than the pieces size.
+	 */
+	final double slotSize;
+
+	/**
+	 * The gap between the edge of a slot and the piece inside it.
+	 */
+	final double pieceOffset;
+
+	final double totalWidth;
+
+	final double totalHeight;
+
+	final double boardWidth;
+
+	final double infoWidth;
+
+	/**
+	 * The size of the counters in the info panel.
+	 */
+	final double counterSize;
+
+	final Font counterFont;
+
+	/**
+	 * The counter of the team that is moving is written a little bigger.
+	 */
+	final Font turnCounterFont;
+
+	Layout(int width, int height, int columns, double rightMargin)
+	{
+		this.width = width;
+		this.height = height;
+		this.pieceSize = Piece.getPieceSize(new Dimension((int) (width * (1 - rightMargin)), height), columns);
+		this.slotSize = pieceSize * 1.25;
+		this.pieceOffset = (slotSize - pieceSize) / 2;
+		this.totalWidth = Math.min(width, height / (1 - rightMargin));
+		this.totalHeight = Math.min(width * (1 - rightMargin), height);
+		this.boardWidth = totalWidth * (1 - rightMargin);
+		this.infoWidth = totalWidth - boardWidth;
+		this.counterSize = infoWidth / 2;
+		this.counterFont = new Font("Lato", 0, (int) (counterSize / 4));
+		this.turnCounterFont = new Font("Lato", 0, (int) ((counterSize / 4) * 1.25));
+	}
+
+	boolean isFor(int width, int height)
+	{
+		return this.width == width && this.height == height;
+	}
+}
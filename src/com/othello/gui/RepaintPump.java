@@ -0,0 +1,197 @@
+package com.othello.gui;
+
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
+import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JComponent;
+import javax.swing.Timer;
+
+/**
+ * Collects the parts of a component that need drawing again and draws them at most once per refresh of the screen. Any
+ * thread can mark part of the component as dirty. Areas that overlap are joined and the rest are kept apart, so pieces
+ * moving on opposite sides of the board don't make everything between them draw again. Each area is painted on the event
+ * thread at the next frame. When nothing is dirty the pump stops until something is.
+ *
+ * @version 1.0.0
+ */
+class RepaintPump implements ActionListener
+{
+	private final JComponent component;
+
+	private final Timer timer;
+
+	/**
+	 * How long a frame lasts in nanoseconds, one refresh of the screen.
+	 */
+	private final long frameNanos;
+
+	/**
+	 * The most areas kept apart, once there are this many new areas are joined to the last one.
+	 */
+	private static final int MAX_AREAS = 32;
+
+	/**
+	 * The areas that need drawing, only used while holding the lock of the pump.
+	 */
+	private final Rectangle[] dirty = new Rectangle[MAX_AREAS];
+
+	private int dirtyCount;
+
+	/**
+	 * The areas being drawn, only used on the event thread.
+	 */
+	private final Rectangle[] painting = new Rectangle[MAX_AREAS];
+
+	/**
+	 * When the last frame was painted, or 0 if the pump was stopped.
+	 */
+	private long lastFrame;
+
+	private long frames;
+
+	private long droppedFrames;
+
+	RepaintPump(JComponent component)
+	{
+		this.component = component;
+		this.frameNanos = TimeUnit.SECONDS.toNanos(1) / getRefreshRate();
+		this.timer = new Timer((int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(frameNanos)), this);
+		this.timer.setInitialDelay(0);
+		this.timer.setCoalesce(true);
+
+		for (int i = 0; i < MAX_AREAS; i++)
+		{
+			dirty[i] = new Rectangle();
+			painting[i] = new Rectangle();
+		}
+	}
+
+	/**
+	 * Marks part of the component as needing drawing again. It can be called from any thread.
+	 */
+	void markDirty(int x, int y, int width, int height)
+	{
+		synchronized (this)
+		{
+			Rectangle area = null;
+
+			for (int i = 0; i < dirtyCount; i++)
+			{
+				Rectangle other = dirty[i];
+
+				if (x < other.x + other.width && other.x < x + width && y < other.y + other.height && other.y < y + height)
+				{
+					area = other;
+					break;
+				}
+			}
+
+			if (area == null && dirtyCount < MAX_AREAS)
+			{
+				dirty[dirtyCount++].setBounds(x, y, width, height);
+			}
+			else
+			{
+				if (area == null) area = dirty[MAX_AREAS - 1];
+
+				int right = Math.max(area.x + area.width, x + width);
+				int bottom = Math.max(area.y + area.height, y + height);
+
+				area.x = Math.min(area.x, x);
+				area.y = Math.min(area.y, y);
+				area.width = right - area.x;
+				area.height = bottom - area.y;
+			}
+		}
+
+		if (!timer.isRunning()) timer.start();
+	}
+
+	/**
+	 * Marks the whole component as needing drawing again.
+	 */
+	void markAllDirty()
+	{
+		synchronized (this)
+		{
+			dirty[0].setBounds(0, 0, component.getWidth(), component.getHeight());
+			dirtyCount = 1;
+		}
+
+		if (!timer.isRunning()) timer.start();
+	}
+
+	/**
+	 * Paints the dirty areas, called by the timer on the event thread once a frame.
+	 */
+	@Override
+	public void actionPerformed(ActionEvent e)
+	{
+		long now = System.nanoTime();
+		int count;
+
+		synchronized (this)
+		{
+			if (dirtyCount == 0)
+			{
+				timer.stop();
+				lastFrame = 0;
+				return;
+			}
+
+			for (int i = 0; i < dirtyCount; i++)
+			{
+				painting[i].setBounds(dirty[i]);
+			}
+
+			count = dirtyCount;
+			dirtyCount = 0;
+		}
+
+		//A frame that comes more than half a frame late means the one before it was missed.
+		if (lastFrame != 0 && now - lastFrame > frameNanos + frameNanos / 2)
+		{
+			droppedFrames += (now - lastFrame - frameNanos / 2) / frameNanos;
+		}
+
+		lastFrame = now;
+		frames++;
+
+		for (int i = 0; i < count; i++)
+		{
+			component.paintImmediately(painting[i]);
+		}
+	}
+
+	/**
+	 * @return The amount of frames painted.
+	 */
+	long getFrames()
+	{
+		return frames;
+	}
+
+	/**
+	 * @return The amount of frames that were missed because painting or the event thread was too slow.
+	 */
+	long getDroppedFrames()
+	{
+		return droppedFrames;
+	}
+
+	/**
+	 * @return The refresh rate of the screen, or 60 if it is not known.
+	 */
+	private static int getRefreshRate()
+	{
+		if (GraphicsEnvironment.isHeadless()) return 60;
+
+		int rate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+
+		return rate == DisplayMode.REFRESH_RATE_UNKNOWN ? 60 : rate;
+	}
+}
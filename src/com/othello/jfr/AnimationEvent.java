@@ -0,0 +1,28 @@
+package com.othello.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded from when pieces start moving on the screen until the last one stops.
+ *
+ * @version 1.0.0
+ */
+@Name("com.othello.Animation")
+@Label("Animation")
+@Category({ "Othello", "GUI" })
+@Description("Pieces moving on the screen, from the first one starting to the last one finishing")
+@StackTrace(false)
+public class AnimationEvent extends Event
+{
+	@Label("Pieces")
+	@Description("The amount of piece moves played")
+	public int pieces;
+
+	@Label("Frames")
+	public int frames;
+}
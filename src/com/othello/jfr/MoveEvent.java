@@ -0,0 +1,35 @@
+package com.othello.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when a move is made on a board.
+ *
+ * @version 1.0.0
+ */
+@Name("com.othello.Move")
+@Label("Move")
+@Category({ "Othello", "Game" })
+@Description("A move made on the board")
+@StackTrace(false)
+public class MoveEvent extends Event
+{
+	@Label("Team")
+	public String team;
+
+	@Label("Slot")
+	public String slot;
+
+	@Label("Flipped")
+	@Description("The amount of pieces flipped by the move")
+	public int flipped;
+
+	@Label("Empty")
+	@Description("The amount of empty slots left after the move")
+	public int empty;
+}
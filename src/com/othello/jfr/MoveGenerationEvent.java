@@ -0,0 +1,28 @@
+package com.othello.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when the valid moves of a turn are found for the window.
+ *
+ * @version 1.0.0
+ */
+@Name("com.othello.MoveGeneration")
+@Label("Move Generation")
+@Category({ "Othello", "Game" })
+@Description("The valid moves of a turn being found")
+@StackTrace(false)
+public class MoveGenerationEvent extends Event
+{
+	@Label("Team")
+	public String team;
+
+	@Label("Moves")
+	@Description("The amount of valid moves")
+	public int moves;
+}
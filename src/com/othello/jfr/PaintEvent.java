@@ -0,0 +1,41 @@
+package com.othello.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded every time the board is painted.
+ *
+ * @version 1.0.0
+ */
+@Name("com.othello.Paint")
+@Label("Paint")
+@Category({ "Othello", "GUI" })
+@Description("The board being painted")
+@StackTrace(false)
+public class PaintEvent extends Event
+{
+	@Label("Width")
+	@Description("The width of the area painted")
+	public int width;
+
+	@Label("Height")
+	@Description("The height of the area painted")
+	public int height;
+
+	@Label("Animating")
+	@Description("The amount of piece moves drawn")
+	public int animating;
+
+	@Label("Frames")
+	@Description("The amount of frames painted since the board was shown")
+	public long frames;
+
+	@Label("Dropped Frames")
+	@Description("The amount of frames missed since the board was shown because painting or the event thread was too slow")
+	public long droppedFrames;
+}
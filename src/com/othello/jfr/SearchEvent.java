@@ -0,0 +1,40 @@
+package com.othello.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded for every move the AI searches for.
+ *
+ * @version 1.0.0
+ */
+@Name("com.othello.Search")
+@Label("Search")
+@Category({ "Othello", "AI" })
+@Description("The AI searching for a move")
+@StackTrace(false)
+public class SearchEvent extends Event
+{
+	@Label("Team")
+	public String team;
+
+	@Label("Move")
+	public String move;
+
+	@Label("Score")
+	public int score;
+
+	@Label("Depth")
+	@Description("The deepest depth that was finished, 0 for a book move")
+	public int depth;
+
+	@Label("Nodes")
+	public long nodes;
+
+	@Label("Threads")
+	public int threads;
+}
@@ -0,0 +1,269 @@
+package com.othello.record;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import com.othello.game.BitBoard;
+import com.othello.game.Board;
+import com.othello.game.Symmetry;
+import com.othello.game.Team;
+import com.othello.game.Zobrist;
+
+/**
+ * An index over a file of games read straight from a memory mapped file, built by {@link GameIndexBuilder}. It finds
+ * every game that reached a position, or in which a team placed on a slot, without reading any of the games.
+ * <p>
+ * The index is a sorted list of keys, each pointing at a list of postings. A posting is where a game starts in the file of
+ * games and a ply of that game, packed into a long and read with {@link #getOffset(long)} and {@link #getPly(long)}. There
+ * are two kinds of key: the hash of a position, with a posting for every time a game reached it after that ply, and the
+ * key of a team placing on a slot, with a posting for every game where it happened on that ply. Positions on the standard
+ * board are keyed by their canonical form from {@link Symmetry}, so a search finds every game that reached any of the
+ * eight symmetries of a position.
+ * <p>
+ * The file starts with a header of {@value #HEADER_BYTES} bytes: the magic number, the version, the amount of games, the
+ * amount of keys and the amount of postings. The postings follow, {@value #POSTING_BYTES} bytes each and sorted by key, and
+ * then the keys, {@value #KEY_BYTES} bytes each: the key and the index of the posting after its last one.
+ *
+ * @version 1.0.0
+ */
+public class GameIndex
+{
+	static final int MAGIC = 0x4F474931;
+
+	static final int VERSION = 2;
+
+	static final int HEADER_BYTES = 32;
+
+	static final int POSTING_BYTES = 8;
+
+	static final int KEY_BYTES = 16;
+
+	/**
+	 * Files are mapped in segments of this many bytes because a single buffer can't be bigger than 2GB. Every value in the
+	 * file is a long at a multiple of 8 bytes, so none of them cross a segment.
+	 */
+	static final int SEGMENT_BYTES = 1 << 30;
+
+	/**
+	 * Mixed into the keys of placed slots so that they never look like positions.
+	 */
+	private static final long PLACED = 0x506C61636564L;
+
+	private final MappedByteBuffer[] segments;
+
+	private final long games;
+
+	private final long keys;
+
+	private final long postings;
+
+	private GameIndex(MappedByteBuffer[] segments, long games, long keys, long postings)
+	{
+		this.segments = segments;
+		this.games = games;
+		this.keys = keys;
+		this.postings = postings;
+	}
+
+	/**
+	 * Maps an index file. Nothing is read apart from the header until it is searched.
+	 *
+	 * @param path The index file.
+	 * @return The index.
+	 * @throws IOException If the file can't be read or is not an index.
+	 */
+	public static GameIndex open(Path path) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+		{
+			long size = channel.size();
+			MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_BYTES - 1) / SEGMENT_BYTES)];
+
+			for (int i = 0; i < segments.length; i++)
+			{
+				long position = (long) i * SEGMENT_BYTES;
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_BYTES, size - position));
+			}
+
+			ByteBuffer header = segments.length == 0 ? ByteBuffer.allocate(0) : segments[0];
+
+			if (header.limit() < HEADER_BYTES || header.getInt(0) != MAGIC || header.getInt(4) != VERSION)
+			{
+				throw new IOException(path + " is not a game index");
+			}
+
+			long keys = header.getLong(16);
+			long postings = header.getLong(24);
+
+			if (HEADER_BYTES + postings * POSTING_BYTES + keys * KEY_BYTES != size)
+			{
+				throw new IOException(path + " is damaged");
+			}
+
+			return new GameIndex(segments, header.getLong(8), keys, postings);
+		}
+	}
+
+	/**
+	 * @return The amount of games in the index.
+	 */
+	public long getGames()
+	{
+		return games;
+	}
+
+	/**
+	 * @return The amount of different keys, which is roughly the amount of different positions.
+	 */
+	public long getKeys()
+	{
+		return keys;
+	}
+
+	public long getPostings()
+	{
+		return postings;
+	}
+
+	/**
+	 * Finds every time a game reached the position on a board, or a symmetry of it, including the team that is moving.
+	 *
+	 * @param board The board.
+	 * @return The postings, in the order of the games in the file.
+	 */
+	public long[] find(Board board)
+	{
+		return find(getPositionKey(board.getBitBoard(), board.getTurn()));
+	}
+
+	/**
+	 * Finds every game in which a team placed on a slot within the first moves of the game.
+	 *
+	 * @param width The width of the board.
+	 * @param height The height of the board.
+	 * @param square The slot, in the layout of a {@link BitBoard} of that size.
+	 * @param team The team that placed on the slot.
+	 * @param moves How many moves into the game it had to happen, for example 20 means on the 20th move or before.
+	 * @return The postings, where the ply is the move the slot was placed on starting from 0.
+	 */
+	public long[] findPlaced(int width, int height, int square, Team team, int moves)
+	{
+		long[] found = find(getPlacedKey(width, height, square, team));
+		int count = 0;
+
+		for (long posting : found)
+		{
+			if (getPly(posting) < moves) found[count++] = posting;
+		}
+
+		return count == found.length ? found : Arrays.copyOf(found, count);
+	}
+
+	/**
+	 * Finds the postings of a key.
+	 *
+	 * @param key The key, from {@link #getPositionKey(BitBoard, Team)} or {@link #getPlacedKey(int, int, int, Team)}.
+	 * @return The postings, in the order of the games in the file, or an empty array if the key is not in the index.
+	 */
+	public long[] find(long key)
+	{
+		long keysStart = HEADER_BYTES + postings * POSTING_BYTES;
+		long low = 0;
+		long high = keys - 1;
+
+		while (low <= high)
+		{
+			long middle = (low + high) >>> 1;
+			long stored = getLong(keysStart + middle * KEY_BYTES);
+
+			if (stored < key)
+			{
+				low = middle + 1;
+			}
+			else if (stored > key)
+			{
+				high = middle - 1;
+			}
+			else
+			{
+				long start = middle == 0 ? 0 : getLong(keysStart + (middle - 1) * KEY_BYTES + 8);
+				long end = getLong(keysStart + middle * KEY_BYTES + 8);
+				long[] found = new long[(int) (end - start)];
+
+				for (int i = 0; i < found.length; i++)
+				{
+					found[i] = getLong(HEADER_BYTES + (start + i) * POSTING_BYTES);
+				}
+
+				return found;
+			}
+		}
+
+		return new long[0];
+	}
+
+	private long getLong(long offset)
+	{
+		return segments[(int) (offset / SEGMENT_BYTES)].getLong((int) (offset % SEGMENT_BYTES));
+	}
+
+	/**
+	 * The key of a position. Positions on the standard board use the hash of their canonical form, other sizes use their
+	 * own hash with the size mixed in so that they are kept apart.
+	 *
+	 * @param bitBoard The pieces.
+	 * @param turn The team that is moving.
+	 * @return The key.
+	 */
+	public static long getPositionKey(BitBoard bitBoard, Team turn)
+	{
+		if (bitBoard.getWidth() == BitBoard.SIZE && bitBoard.getHeight() == BitBoard.SIZE)
+		{
+			return Symmetry.hash(bitBoard.getPieces(Team.BLACK), bitBoard.getPieces(Team.WHITE), turn);
+		}
+
+		return bitBoard.getHash() ^ (turn == Team.WHITE ? Zobrist.WHITE_TO_MOVE : 0) ^ Zobrist.getSizeKey(bitBoard.getWidth(), bitBoard.getHeight());
+	}
+
+	/**
+	 * The key of a team placing on a slot.
+	 *
+	 * @param width The width of the board.
+	 * @param height The height of the board.
+	 * @param square The slot.
+	 * @param team The team that placed on the slot.
+	 * @return The key.
+	 */
+	public static long getPlacedKey(int width, int height, int square, Team team)
+	{
+		return Long.rotateLeft(Zobrist.getPieceKey(team.ordinal(), square), 17) ^ Zobrist.getSizeKey(width, height) ^ PLACED;
+	}
+
+	/**
+	 * @param posting A posting returned by a search.
+	 * @return Where the game starts in the file of games, for {@link GameReader#seek(long)}.
+	 */
+	public static long getOffset(long posting)
+	{
+		return posting >>> 16;
+	}
+
+	/**
+	 * @param posting A posting returned by a search.
+	 * @return The amount of moves made in the game when the position was reached, or the move on which the slot was placed.
+	 */
+	public static int getPly(long posting)
+	{
+		return (int) posting & 0xFFFF;
+	}
+
+	static long createPosting(long offset, int ply)
+	{
+		return offset << 16 | ply;
+	}
+}
@@ -0,0 +1,397 @@
+package com.othello.record;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.othello.game.BitBoard;
+import com.othello.game.Team;
+
+/**
+ * Builds a {@link GameIndex} from a file of games. Every game is played through on a {@link BitBoard}, which is far
+ * quicker than going through the rules, and its postings are collected in primitive arrays. Whenever the arrays fill up
+ * they are sorted and written to a run file next to the index, and once every game is read the runs are merged into the
+ * index. Memory use is fixed however many games there are.
+ *
+ * @version 1.0.0
+ */
+public class GameIndexBuilder
+{
+	/**
+	 * How many postings are sorted in memory at once, 16 bytes each.
+	 */
+	private static final int RUN_POSTINGS = 1 << 22;
+
+	private static final int BUFFER_BYTES = 1 << 20;
+
+	private final Path index;
+
+	private final long[] keys = new long[RUN_POSTINGS];
+
+	private final long[] postings = new long[RUN_POSTINGS];
+
+	private int size;
+
+	private final List<Path> runs = new ArrayList<>();
+
+	private long games;
+
+	private GameIndexBuilder(Path index)
+	{
+		this.index = index;
+	}
+
+	/**
+	 * Indexes every game in a file.
+	 *
+	 * @param games The file of games.
+	 * @param index The index file to write, it is replaced if it exists.
+	 * @throws IOException If a file can't be read or written, or a game in the file can't be played.
+	 */
+	public static void build(Path games, Path index) throws IOException
+	{
+		GameIndexBuilder builder = new GameIndexBuilder(index);
+
+		try (GameReader reader = new GameReader(games))
+		{
+			while (reader.next())
+			{
+				builder.add(reader);
+			}
+
+			builder.writeRun();
+			builder.merge();
+		}
+		finally
+		{
+			for (Path run : builder.runs)
+			{
+				Files.deleteIfExists(run);
+			}
+		}
+	}
+
+	/**
+	 * Plays a game through and adds a posting for every position it reached and every slot placed on.
+	 */
+	private void add(GameReader reader) throws IOException
+	{
+		int width = reader.getWidth();
+		int height = reader.getHeight();
+		long offset = reader.getOffset();
+		BitBoard bitBoard = new BitBoard(width, height);
+		long[] flips = bitBoard.createSet();
+		Team turn = reader.getStartingTurn();
+
+		bitBoard.setPiece(Team.BLACK, bitBoard.getSquare(new Point(width / 2, height / 2)));
+		bitBoard.setPiece(Team.WHITE, bitBoard.getSquare(new Point(width / 2 + 1, height / 2)));
+		bitBoard.setPiece(Team.WHITE, bitBoard.getSquare(new Point(width / 2, height / 2 + 1)));
+		bitBoard.setPiece(Team.BLACK, bitBoard.getSquare(new Point(width / 2 + 1, height / 2 + 1)));
+
+		add(GameIndex.getPositionKey(bitBoard, turn), GameIndex.createPosting(offset, 0));
+
+		for (int ply = 0; ply < reader.getMoveCount(); ply++)
+		{
+			int square = reader.getMove(ply);
+
+			if (square >= width * height || bitBoard.getFlips(turn, square, flips) == 0)
+			{
+				throw new IOException("Move " + ply + " of the game at " + offset + " can not be played");
+			}
+
+			bitBoard.move(turn, square, flips);
+			add(GameIndex.getPlacedKey(width, height, square, turn), GameIndex.createPosting(offset, ply));
+
+			//The turn goes back to the team that moved if the other team has to pass, like on a board.
+			Team opponent = turn == Team.BLACK ? Team.WHITE : Team.BLACK;
+			if (bitBoard.hasMoves(opponent) || !bitBoard.hasMoves(turn)) turn = opponent;
+
+			add(GameIndex.getPositionKey(bitBoard, turn), GameIndex.createPosting(offset, ply + 1));
+		}
+
+		games++;
+	}
+
+	private void add(long key, long posting) throws IOException
+	{
+		if (size == RUN_POSTINGS) writeRun();
+
+		keys[size] = key;
+		postings[size] = posting;
+		size++;
+	}
+
+	/**
+	 * Sorts the postings in memory and writes them to a new run file.
+	 */
+	private void writeRun() throws IOException
+	{
+		if (size == 0) return;
+
+		sort(0, size - 1);
+
+		Path run = Files.createTempFile(index.toAbsolutePath().getParent(), index.getFileName().toString(), ".run");
+		runs.add(run);
+
+		try (FileChannel channel = FileChannel.open(run, StandardOpenOption.WRITE))
+		{
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+			for (int i = 0; i < size; i++)
+			{
+				if (buffer.remaining() < 16) write(channel, buffer);
+
+				buffer.putLong(keys[i]);
+				buffer.putLong(postings[i]);
+			}
+
+			write(channel, buffer);
+		}
+
+		size = 0;
+	}
+
+	/**
+	 * Merges the runs into the index. The postings are written straight to the index and the keys to a file of their own,
+	 * which is added to the end of the index once every posting is written.
+	 */
+	private void merge() throws IOException
+	{
+		Path keyRun = Files.createTempFile(index.toAbsolutePath().getParent(), index.getFileName().toString(), ".run");
+		runs.add(keyRun);
+
+		List<Run> readers = new ArrayList<>();
+
+		try (FileChannel output = FileChannel.open(index, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+				FileChannel keyOutput = FileChannel.open(keyRun, StandardOpenOption.READ, StandardOpenOption.WRITE))
+		{
+			for (int i = 0; i < runs.size() - 1; i++)
+			{
+				readers.add(new Run(runs.get(i)));
+			}
+
+			ByteBuffer postingBuffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+			ByteBuffer keyBuffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+			long written = 0;
+			long keyCount = 0;
+
+			output.position(GameIndex.HEADER_BYTES);
+
+			while (true)
+			{
+				//There are only ever a few runs, so finding the smallest by looking at each is quicker than a heap.
+				Run smallest = null;
+
+				for (Run run : readers)
+				{
+					if (run.hasNext && (smallest == null || run.key < smallest.key || run.key == smallest.key && run.posting < smallest.posting))
+					{
+						smallest = run;
+					}
+				}
+
+				if (smallest == null) break;
+
+				long key = smallest.key;
+
+				if (postingBuffer.remaining() < GameIndex.POSTING_BYTES) write(output, postingBuffer);
+				postingBuffer.putLong(smallest.posting);
+				written++;
+				smallest.next();
+
+				if (!hasKey(readers, key))
+				{
+					if (keyBuffer.remaining() < GameIndex.KEY_BYTES) write(keyOutput, keyBuffer);
+					keyBuffer.putLong(key);
+					keyBuffer.putLong(written);
+					keyCount++;
+				}
+			}
+
+			write(output, postingBuffer);
+			write(keyOutput, keyBuffer);
+
+			for (long position = 0, length = keyOutput.size(); position < length; )
+			{
+				position += keyOutput.transferTo(position, length - position, output);
+			}
+
+			ByteBuffer header = ByteBuffer.allocate(GameIndex.HEADER_BYTES);
+			header.putInt(GameIndex.MAGIC).putInt(GameIndex.VERSION).putLong(games).putLong(keyCount).putLong(written).flip();
+
+			while (header.hasRemaining())
+			{
+				output.write(header, header.position());
+			}
+
+			output.force(true);
+		}
+		finally
+		{
+			for (Run run : readers)
+			{
+				run.channel.close();
+			}
+		}
+	}
+
+	/**
+	 * @return Whether any run has more postings of the key.
+	 */
+	private static boolean hasKey(List<Run> runs, long key)
+	{
+		for (Run run : runs)
+		{
+			if (run.hasNext && run.key == key) return true;
+		}
+
+		return false;
+	}
+
+	private static void write(FileChannel channel, ByteBuffer buffer) throws IOException
+	{
+		buffer.flip();
+
+		while (buffer.hasRemaining())
+		{
+			channel.write(buffer);
+		}
+
+		buffer.clear();
+	}
+
+	/**
+	 * Sorts the postings in memory by key and then by posting. This is a quicksort over both arrays at once so that no
+	 * object is made for each posting.
+	 */
+	private void sort(int low, int high)
+	{
+		while (high - low > 16)
+		{
+			int middle = (low + high) >>> 1;
+
+			//Move the median of the first, middle and last postings to the end to use as the pivot.
+			if (compare(middle, low) < 0) swap(middle, low);
+			if (compare(high, low) < 0) swap(high, low);
+			if (compare(middle, high) < 0) swap(middle, high);
+
+			long pivotKey = keys[high];
+			long pivotPosting = postings[high];
+			int store = low;
+
+			for (int i = low; i < high; i++)
+			{
+				if (keys[i] < pivotKey || keys[i] == pivotKey && postings[i] < pivotPosting) swap(i, store++);
+			}
+
+			swap(store, high);
+
+			//Recurse into the smaller side and loop on the bigger one so the stack stays shallow.
+			if (store - low < high - store)
+			{
+				sort(low, store - 1);
+				low = store + 1;
+			}
+			else
+			{
+				sort(store + 1, high);
+				high = store - 1;
+			}
+		}
+
+		for (int i = low + 1; i <= high; i++)
+		{
+			for (int j = i; j > low && compare(j, j - 1) < 0; j--)
+			{
+				swap(j, j - 1);
+			}
+		}
+	}
+
+	private int compare(int a, int b)
+	{
+		int compare = Long.compare(keys[a], keys[b]);
+
+		return compare != 0 ? compare : Long.compare(postings[a], postings[b]);
+	}
+
+	private void swap(int a, int b)
+	{
+		long key = keys[a];
+		long posting = postings[a];
+
+		keys[a] = keys[b];
+		postings[a] = postings[b];
+		keys[b] = key;
+		postings[b] = posting;
+	}
+
+	/**
+	 * Reads a run file back one posting at a time.
+	 */
+	private static class Run
+	{
+		private final FileChannel channel;
+
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+		private boolean hasNext;
+
+		private long key;
+
+		private long posting;
+
+		Run(Path path) throws IOException
+		{
+			this.channel = FileChannel.open(path, StandardOpenOption.READ);
+			this.buffer.limit(0);
+			next();
+		}
+
+		void next() throws IOException
+		{
+			if (buffer.remaining() < 16)
+			{
+				buffer.compact();
+
+				while (buffer.position() < 16)
+				{
+					if (channel.read(buffer) == -1) break;
+				}
+
+				buffer.flip();
+			}
+
+			hasNext = buffer.remaining() >= 16;
+
+			if (hasNext)
+			{
+				key = buffer.getLong();
+				posting = buffer.getLong();
+			}
+		}
+	}
+
+	/**
+	 * @param args The file of games (default games.bin) and the index file to write (default games.idx).
+	 * @throws IOException If a file can't be read or written.
+	 */
+	public static void main(String... args) throws IOException
+	{
+		Path games = Paths.get(args.length > 0 ? args[0] : "games.bin");
+		Path index = Paths.get(args.length > 1 ? args[1] : "games.idx");
+		long start = System.nanoTime();
+
+		build(games, index);
+
+		GameIndex built = GameIndex.open(index);
+		System.out.printf("Indexed %d games, %d keys and %d postings in %.2fs%n", built.getGames(), built.getKeys(), built.getPostings(), (System.nanoTime() - start) / 1e9);
+	}
+}
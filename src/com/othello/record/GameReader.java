@@ -0,0 +1,308 @@
+package com.othello.record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import com.othello.game.BitBoard;
+import com.othello.game.Board;
+import com.othello.game.BoardFactory;
+import com.othello.game.Team;
+
+/**
+ * Reads a file of games written by {@link GameWriter} one game at a time. The file is read through a fixed buffer so any
+ * amount of games can be scanned without loading the file, and nothing is allocated for each game apart from the move
+ * array growing for the longest game.
+ * <p>
+ * The file starts with a header of {@value #HEADER_BYTES} bytes: the magic number and the version. Each game then has a
+ * header of {@value #RECORD_HEADER_BYTES} bytes: the width and height of the board, a byte of flags, the length of the
+ * engine text, the score as an int and the amount of moves as an unsigned short. The flags hold the team that moved first
+ * in bit 0 and the result in bits 1 and 2 (0 unfinished, 1 black won, 2 white won, 3 draw). The engine text follows in
+ * UTF-8 and then the slot of each move, one byte each or two bytes on boards with more than 256 slots. Passes are not
+ * stored because a team only ever passes when it has no moves.
+ *
+ * @version 1.0.0
+ */
+public class GameReader implements Closeable
+{
+	static final int MAGIC = 0x4F474D31;
+
+	static final int VERSION = 2;
+
+	static final int HEADER_BYTES = 8;
+
+	static final int RECORD_HEADER_BYTES = 10;
+
+	/**
+	 * Big enough for the longest possible game, 255x255 slots of two bytes each.
+	 */
+	static final int BUFFER_BYTES = 1 << 17;
+
+	static final int UNFINISHED = 0;
+
+	static final int DRAW = 3;
+
+	private static final Team[] TEAMS = Team.values();
+
+	private final Path path;
+
+	private final FileChannel channel;
+
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+	/**
+	 * Where the next game starts in the file.
+	 */
+	private long position = HEADER_BYTES;
+
+	private long offset;
+
+	private int width;
+
+	private int height;
+
+	private int flags;
+
+	private int score;
+
+	private int count;
+
+	private int[] moves = new int[64];
+
+	/**
+	 * Big enough for the longest engine text, its length is stored in a byte.
+	 */
+	private final byte[] engine = new byte[255];
+
+	private int engineLength;
+
+	/**
+	 * Opens a file of games. Nothing is read apart from the header until {@link #next()} is called.
+	 *
+	 * @param path The file.
+	 * @throws IOException If the file can't be read or is not a file of games.
+	 */
+	public GameReader(Path path) throws IOException
+	{
+		this.path = path;
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+		try
+		{
+			buffer.limit(0);
+
+			if (!fill(HEADER_BYTES) || buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+			{
+				throw new IOException(path + " is not a file of games");
+			}
+		}
+		catch (IOException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Moves on to the next game.
+	 *
+	 * @return False if there are no more games.
+	 * @throws IOException If the file can't be read or ends part way through a game.
+	 */
+	public boolean next() throws IOException
+	{
+		if (!fill(RECORD_HEADER_BYTES))
+		{
+			if (buffer.hasRemaining()) throw new IOException(path + " ends part way through a game");
+
+			return false;
+		}
+
+		offset = position;
+		width = buffer.get() & 0xFF;
+		height = buffer.get() & 0xFF;
+		flags = buffer.get() & 0xFF;
+		engineLength = buffer.get() & 0xFF;
+		score = buffer.getInt();
+		count = buffer.getShort() & 0xFFFF;
+
+		int moveBytes = getMoveBytes(width, height);
+
+		if (!fill(engineLength + count * moveBytes)) throw new IOException(path + " ends part way through a game");
+
+		buffer.get(engine, 0, engineLength);
+
+		if (count > moves.length) moves = Arrays.copyOf(moves, Math.max(count, moves.length * 2));
+
+		for (int i = 0; i < count; i++)
+		{
+			moves[i] = moveBytes == 1 ? buffer.get() & 0xFF : buffer.getShort() & 0xFFFF;
+		}
+
+		position += RECORD_HEADER_BYTES + engineLength + count * moveBytes;
+
+		return true;
+	}
+
+	/**
+	 * Jumps to a game so that the next call to {@link #next()} reads it.
+	 *
+	 * @param offset Where the game starts in the file, as returned by {@link #getOffset()} or
+	 *               {@link GameIndex#getOffset(long)}.
+	 * @throws IOException If the file can't be read.
+	 */
+	public void seek(long offset) throws IOException
+	{
+		if (offset < HEADER_BYTES) throw new IllegalArgumentException("No game starts at " + offset);
+
+		channel.position(offset);
+		buffer.clear().limit(0);
+		position = offset;
+	}
+
+	/**
+	 * Makes sure the buffer holds at least the given amount of bytes, reading more of the file if it doesn't.
+	 *
+	 * @return False if the file ends first.
+	 */
+	private boolean fill(int bytes) throws IOException
+	{
+		if (buffer.remaining() >= bytes) return true;
+
+		buffer.compact();
+
+		while (buffer.position() < bytes)
+		{
+			if (channel.read(buffer) == -1) break;
+		}
+
+		buffer.flip();
+
+		return buffer.remaining() >= bytes;
+	}
+
+	/**
+	 * @return How many bytes each move takes on a board of the given size.
+	 */
+	static int getMoveBytes(int width, int height)
+	{
+		return width * height > 256 ? 2 : 1;
+	}
+
+	/**
+	 * @return Where the current game starts in the file.
+	 */
+	public long getOffset()
+	{
+		return offset;
+	}
+
+	public int getWidth()
+	{
+		return width;
+	}
+
+	public int getHeight()
+	{
+		return height;
+	}
+
+	/**
+	 * @return The team that moved first.
+	 */
+	public Team getStartingTurn()
+	{
+		return TEAMS[flags & 1];
+	}
+
+	/**
+	 * @return Whether the game was played to the end.
+	 */
+	public boolean isFinished()
+	{
+		return (flags >>> 1 & 3) != UNFINISHED;
+	}
+
+	/**
+	 * @return The team that won, or null if the game was a draw or not finished.
+	 */
+	public Team getWinner()
+	{
+		int result = flags >>> 1 & 3;
+
+		return result == UNFINISHED || result == DRAW ? null : TEAMS[result - 1];
+	}
+
+	/**
+	 * @return The amount of black pieces take away the amount of white pieces at the end of the game.
+	 */
+	public int getScore()
+	{
+		return score;
+	}
+
+	/**
+	 * @return The text the game was written with, usually describing the engines that played it.
+	 */
+	public String getEngine()
+	{
+		return new String(engine, 0, engineLength, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return The amount of moves in the game, not counting passes.
+	 */
+	public int getMoveCount()
+	{
+		return count;
+	}
+
+	/**
+	 * @param index The index of a move, where 0 is the first move of the game.
+	 * @return The slot the move placed on, in the layout of a {@link BitBoard} of the size of the game.
+	 */
+	public int getMove(int index)
+	{
+		if (index < 0 || index >= count) throw new IndexOutOfBoundsException("No move " + index);
+
+		return moves[index];
+	}
+
+	/**
+	 * Plays the current game on a new board. This goes through the rules for every move, so scans over many games should
+	 * read the moves instead.
+	 *
+	 * @return The board after the last move.
+	 * @throws IllegalStateException If a move of the game can't be played.
+	 */
+	public Board createBoard()
+	{
+		Board board = BoardFactory.createBoard(width, height);
+		board.setComputer(Team.BLACK, false);
+		board.setTurn(getStartingTurn());
+
+		for (int i = 0; i < count; i++)
+		{
+			if (board.getWinner() != null || !BitBoard.contains(board.getMobility(), moves[i]))
+			{
+				throw new IllegalStateException("Move " + i + " of the game at " + offset + " can not be played");
+			}
+
+			board.move(board.getBitBoard().toPoint(moves[i]));
+		}
+
+		board.setComputer(Team.BLACK, true);
+		return board;
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+}
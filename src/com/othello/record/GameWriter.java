@@ -0,0 +1,271 @@
+package com.othello.record;
+
+import java.awt.Point;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.othello.game.Board;
+import com.othello.game.BoardListener;
+import com.othello.game.Piece;
+import com.othello.game.Team;
+
+/**
+ * Appends games to a file in the format read by {@link GameReader}. Games are collected in a fixed buffer and written to
+ * the file in large blocks, so writing a game is little more than copying its moves. Any thread can write games.
+ * <p>
+ * Only games played from the usual four pieces in the middle of the board can be written, which is every game started by
+ * {@link com.othello.game.BoardFactory#createBoard(int, int)}.
+ *
+ * @version 1.0.0
+ */
+public class GameWriter implements Closeable
+{
+	private final FileChannel channel;
+
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(GameReader.BUFFER_BYTES);
+
+	private long games;
+
+	/**
+	 * Opens a file of games to add to, creating it if it doesn't exist.
+	 *
+	 * @param path The file.
+	 * @throws IOException If the file can't be written or already holds something other than games.
+	 */
+	public GameWriter(Path path) throws IOException
+	{
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		try
+		{
+			ByteBuffer header = ByteBuffer.allocate(GameReader.HEADER_BYTES);
+
+			if (channel.size() == 0)
+			{
+				header.putInt(GameReader.MAGIC).putInt(GameReader.VERSION).flip();
+
+				while (header.hasRemaining())
+				{
+					channel.write(header);
+				}
+			}
+			else
+			{
+				while (header.hasRemaining())
+				{
+					if (channel.read(header, header.position()) == -1) break;
+				}
+
+				if (header.hasRemaining() || header.getInt(0) != GameReader.MAGIC || header.getInt(4) != GameReader.VERSION)
+				{
+					throw new IOException(path + " is not a file of games");
+				}
+			}
+
+			channel.position(channel.size());
+		}
+		catch (IOException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Writes a game.
+	 *
+	 * @param width The width of the board, at most 255.
+	 * @param height The height of the board, at most 255.
+	 * @param startingTurn The team that moved first.
+	 * @param moves The slot of each move in the layout of a {@link com.othello.game.BitBoard} of the size of the game.
+	 * @param count The amount of moves.
+	 * @param finished Whether the game was played to the end.
+	 * @param score The amount of black pieces take away the amount of white pieces at the end of the game.
+	 * @param engine Describes the engines that played the game, at most 255 bytes in UTF-8.
+	 * @throws IOException If the file can't be written.
+	 */
+	public synchronized void write(int width, int height, Team startingTurn, int[] moves, int count, boolean finished, int score, String engine) throws IOException
+	{
+		if (width < 1 || width > 255 || height < 1 || height > 255)
+		{
+			throw new IllegalArgumentException("A " + width + "x" + height + " game can not be written");
+		}
+
+		byte[] text = engine.getBytes(StandardCharsets.UTF_8);
+		int moveBytes = GameReader.getMoveBytes(width, height);
+
+		if (text.length > 255)
+		{
+			throw new IllegalArgumentException("The engine text is longer than 255 bytes");
+		}
+
+		int result = !finished ? GameReader.UNFINISHED : score > 0 ? 1 + Team.BLACK.ordinal() : score < 0 ? 1 + Team.WHITE.ordinal() : GameReader.DRAW;
+
+		if (buffer.remaining() < GameReader.RECORD_HEADER_BYTES + text.length + count * moveBytes) flush();
+
+		buffer.put((byte) width);
+		buffer.put((byte) height);
+		buffer.put((byte) (startingTurn.ordinal() | result << 1));
+		buffer.put((byte) text.length);
+		buffer.putInt(score);
+		buffer.putShort((short) count);
+		buffer.put(text);
+
+		for (int i = 0; i < count; i++)
+		{
+			if (moveBytes == 1) buffer.put((byte) moves[i]);
+			else buffer.putShort((short) moves[i]);
+		}
+
+		games++;
+	}
+
+	/**
+	 * Writes the moves made on a board so far.
+	 *
+	 * @param board The board, which has to have started from the usual four pieces.
+	 * @param engine Describes the engines that played the game, at most 255 bytes in UTF-8.
+	 * @throws IOException If the file can't be written.
+	 */
+	public void write(Board board, String engine) throws IOException
+	{
+		int[] moves = new int[board.getMoveCount()];
+
+		for (int i = 0; i < moves.length; i++)
+		{
+			moves[i] = board.getMove(i);
+		}
+
+		write(board.getWidth(), board.getHeight(), board.getStartingTurn(), moves, moves.length, board.getWinner() != null, board.getBlack() - board.getWhite(), engine);
+	}
+
+	/**
+	 * Follows a board and writes its game each time it ends. If moves are taken back and the game is played to the end
+	 * again the new game is written too. Closing the recording stops it and writes the game if it was left unfinished.
+	 * <p>
+	 * Games are written whole rather than as each move is made, because a game's header holds its amount of moves and
+	 * result and the file can only be appended to.
+	 *
+	 * @param board The board, which has to have started from the usual four pieces.
+	 * @param engine Describes the engines that play the game, at most 255 bytes in UTF-8.
+	 * @return The recording, which has been added to the board as a listener.
+	 */
+	public Recording record(Board board, String engine)
+	{
+		Recording recording = new Recording(board, engine);
+
+		board.addListener(recording);
+		return recording;
+	}
+
+	/**
+	 * @return The amount of games written since the file was opened.
+	 */
+	public synchronized long getGames()
+	{
+		return games;
+	}
+
+	/**
+	 * Writes every game in the buffer to the file.
+	 *
+	 * @throws IOException If the file can't be written.
+	 */
+	public synchronized void flush() throws IOException
+	{
+		buffer.flip();
+
+		while (buffer.hasRemaining())
+		{
+			channel.write(buffer);
+		}
+
+		buffer.clear();
+	}
+
+	/**
+	 * Writes the game on a board each time it ends, see {@link GameWriter#record(Board, String)}.
+	 */
+	public class Recording implements BoardListener, Closeable
+	{
+		private final Board board;
+
+		private final String engine;
+
+		private boolean written;
+
+		private Recording(Board board, String engine)
+		{
+			this.board = board;
+			this.engine = engine;
+		}
+
+		@Override
+		public void onPiecePlaced(Point point, Piece piece)
+		{
+		}
+
+		@Override
+		public void onPieceFlipped(Point point, Piece piece, Team previous, int index)
+		{
+		}
+
+		@Override
+		public void onUpdate()
+		{
+			if (board.getWinner() == null)
+			{
+				written = false;
+			}
+			else if (!written)
+			{
+				written = true;
+
+				try
+				{
+					write(board, engine);
+				}
+				catch (IOException e)
+				{
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
+
+		/**
+		 * Stops following the board, writing its game if any moves have been made since the last game was written.
+		 *
+		 * @throws IOException If the game can't be written.
+		 */
+		@Override
+		public void close() throws IOException
+		{
+			board.removeListener(this);
+
+			if (!written && board.getMoveCount() > 0)
+			{
+				written = true;
+				write(board, engine);
+			}
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException
+	{
+		try
+		{
+			flush();
+		}
+		finally
+		{
+			channel.close();
+		}
+	}
+}
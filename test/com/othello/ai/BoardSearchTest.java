@@ -0,0 +1,160 @@
+package com.othello.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.othello.game.BitBoard;
+import com.othello.game.Board;
+import com.othello.game.BoardFactory;
+import com.othello.game.Team;
+
+/**
+ * Checks the search of boards that aren't 8x8 against a plain minimax search of positions near the end of the game.
+ *
+ * @version 1.0.0
+ */
+class BoardSearchTest
+{
+	/**
+	 * How many endgames are checked for each size of board.
+	 */
+	private static final int POSITIONS = 20;
+
+	private static final int EMPTIES = 8;
+
+	@Test
+	void smallBoardIsSolved()
+	{
+		Board board = BoardFactory.createBoard(4, 4);
+
+		assertSolved(board.getBitBoard(), board.getTurn(), "4x4");
+	}
+
+	@Test
+	void endgamesAreSolved()
+	{
+		Random random = new Random(19);
+
+		for (int[] size : new int[][] { { 6, 6 }, { 10, 4 }, { 9, 7 }, { 12, 12 } })
+		{
+			for (int i = 0; i < POSITIONS; i++)
+			{
+				Board board = BoardFactory.createBoard(size[0], size[1]);
+				BitBoard bitBoard = board.getBitBoard();
+				Team team = play(bitBoard, board.getTurn(), random);
+
+				if (team != null) assertSolved(bitBoard, team, size[0] + "x" + size[1] + " " + i);
+			}
+		}
+	}
+
+	private static void assertSolved(BitBoard bitBoard, Team team, String name)
+	{
+		Search search = new Search();
+		search.setTimeLimit(Long.MAX_VALUE);
+
+		long hash = bitBoard.getHash();
+		int expected = minimax(bitBoard, team);
+		SearchResult result = search.search(bitBoard, team);
+
+		assertEquals(Search.toScore(expected), result.getScore(), name);
+		assertEquals(hash, bitBoard.getHash(), name + " left as it was");
+
+		long[] flips = bitBoard.createSet();
+		bitBoard.getFlips(team, result.getMove(), flips);
+		bitBoard.move(team, result.getMove(), flips);
+		assertEquals(expected, -minimax(bitBoard, team == Team.BLACK ? Team.WHITE : Team.BLACK), name + " best move");
+		bitBoard.undo(team, result.getMove(), flips);
+	}
+
+	@Test
+	void largeBoardStopsAtTheLimit()
+	{
+		Search search = new Search();
+		search.setTimeLimit(Long.MAX_VALUE);
+		search.setNodeLimit(20000);
+
+		Board board = BoardFactory.createBoard(14, 12);
+		BitBoard bitBoard = board.getBitBoard();
+		SearchResult result = search.search(bitBoard, board.getTurn());
+		long[] moves = bitBoard.createSet();
+		bitBoard.getMoves(board.getTurn(), moves);
+
+		assertTrue(BitBoard.contains(moves, result.getMove()));
+		assertTrue(result.getDepth() >= 1 && result.getDepth() < 60, "depth " + result.getDepth());
+		assertTrue(result.getNodes() < 40000, "nodes " + result.getNodes());
+		assertTrue(result.getTimeToDepth(result.getDepth()) > 0);
+	}
+
+	/**
+	 * Plays random moves until only a few slots are empty.
+	 *
+	 * @return The team to move, or null if the game ended first or the team has to pass.
+	 */
+	private static Team play(BitBoard bitBoard, Team team, Random random)
+	{
+		long[] moves = bitBoard.createSet();
+		long[] flips = bitBoard.createSet();
+		int empties = bitBoard.getWidth() * bitBoard.getHeight() - 4;
+
+		for (; empties > EMPTIES; empties--)
+		{
+			bitBoard.getMoves(team, moves);
+
+			if (BitBoard.isEmpty(moves))
+			{
+				team = team == Team.BLACK ? Team.WHITE : Team.BLACK;
+				bitBoard.getMoves(team, moves);
+
+				if (BitBoard.isEmpty(moves)) return null;
+			}
+
+			int square = BitBoard.next(moves, 0);
+
+			for (int skip = random.nextInt(BitBoard.count(moves)); skip > 0; skip--)
+			{
+				square = BitBoard.next(moves, square + 1);
+			}
+
+			bitBoard.getFlips(team, square, flips);
+			bitBoard.move(team, square, flips);
+			team = team == Team.BLACK ? Team.WHITE : Team.BLACK;
+		}
+
+		return bitBoard.hasMoves(team) ? team : null;
+	}
+
+	/**
+	 * @return The final difference in pieces for the team moving with best play from both teams.
+	 */
+	private static int minimax(BitBoard bitBoard, Team team)
+	{
+		Team other = team == Team.BLACK ? Team.WHITE : Team.BLACK;
+		long[] moves = bitBoard.createSet();
+		bitBoard.getMoves(team, moves);
+
+		if (BitBoard.isEmpty(moves))
+		{
+			if (!bitBoard.hasMoves(other)) return bitBoard.getCount(team) - bitBoard.getCount(other);
+
+			return -minimax(bitBoard, other);
+		}
+
+		int best = Integer.MIN_VALUE;
+		long[] flips = bitBoard.createSet();
+
+		for (int square = BitBoard.next(moves, 0); square != -1; square = BitBoard.next(moves, square + 1))
+		{
+			bitBoard.getFlips(team, square, flips);
+			bitBoard.move(team, square, flips);
+			best = Math.max(best, -minimax(bitBoard, other));
+			bitBoard.undo(team, square, flips);
+		}
+
+		return best;
+	}
+}
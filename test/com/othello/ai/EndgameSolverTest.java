@@ -0,0 +1,130 @@
+package com.othello.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.othello.ai.EndgameSolver.Mode;
+import com.othello.game.BitBoard;
+import com.othello.game.BoardFactory;
+import com.othello.game.Team;
+
+/**
+ * Checks the {@link EndgameSolver} against a plain minimax search over random endgames.
+ *
+ * @version 1.0.0
+ */
+class EndgameSolverTest
+{
+	/**
+	 * How many positions are checked for each amount of empty slots.
+	 */
+	private static final int POSITIONS = 200;
+
+	private static final int MAX_EMPTIES = 9;
+
+	@Test
+	void exactScoresMatchMinimax()
+	{
+		EndgameSolver solver = new EndgameSolver();
+		solver.setTranspositionTable(new TranspositionTable(1));
+		Random random = new Random(6);
+
+		for (int empties = 1; empties <= MAX_EMPTIES; empties++)
+		{
+			for (int i = 0; i < POSITIONS; i++)
+			{
+				long[] position = createPosition(random, empties);
+				long player = position[0];
+				long opponent = position[1];
+				int expected = minimax(player, opponent, false);
+				SearchResult result = solver.solve(player, opponent, i & 1, Mode.EXACT);
+				String name = empties + " empties " + Long.toHexString(player) + " " + Long.toHexString(opponent);
+
+				assertEquals(expected, result.getScore(), name);
+
+				long flips = BitBoard.getFlips(player, opponent, result.getMove());
+				assertEquals(expected, -minimax(opponent & ~flips, player | flips | (1L << result.getMove()), false), name + " best move");
+
+				assertEquals(Integer.signum(expected), solver.solve(player, opponent, i & 1, Mode.WIN_LOSS_DRAW).getScore(), name + " result");
+			}
+		}
+	}
+
+	/**
+	 * Plays random moves from the start until a position with the amount of empties and a move for the player is reached.
+	 *
+	 * @return The pieces of the team to move and of the other team.
+	 */
+	private static long[] createPosition(Random random, int empties)
+	{
+		while (true)
+		{
+			BitBoard start = BoardFactory.createStandardBoard().getBitBoard();
+			long player = start.getPieces(Team.BLACK);
+			long opponent = start.getPieces(Team.WHITE);
+
+			while (true)
+			{
+				long moves = BitBoard.getMoves(player, opponent);
+
+				if (moves == 0)
+				{
+					if (BitBoard.getMoves(opponent, player) == 0) break;
+
+					long swap = player;
+					player = opponent;
+					opponent = swap;
+					continue;
+				}
+
+				if (Long.bitCount(~(player | opponent)) == empties) return new long[] { player, opponent };
+
+				for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--)
+				{
+					moves &= moves - 1;
+				}
+
+				int square = Long.numberOfTrailingZeros(moves);
+				long flips = BitBoard.getFlips(player, opponent, square);
+				long next = player | flips | (1L << square);
+				player = opponent & ~flips;
+				opponent = next;
+			}
+		}
+	}
+
+	/**
+	 * Tries every move to the end of the game.
+	 *
+	 * @return The final difference in pieces for the player, with the empty slots given to the winner.
+	 */
+	private static int minimax(long player, long opponent, boolean passed)
+	{
+		long moves = BitBoard.getMoves(player, opponent);
+
+		if (moves == 0)
+		{
+			if (!passed) return -minimax(opponent, player, true);
+
+			int difference = Long.bitCount(player) - Long.bitCount(opponent);
+			int empty = Long.bitCount(~(player | opponent));
+
+			return difference > 0 ? difference + empty : difference < 0 ? difference - empty : 0;
+		}
+
+		int best = -65;
+
+		for (; moves != 0; moves &= moves - 1)
+		{
+			int square = Long.numberOfTrailingZeros(moves);
+			long flips = BitBoard.getFlips(player, opponent, square);
+
+			best = Math.max(best, -minimax(opponent & ~flips, player | flips | (1L << square), false));
+		}
+
+		return best;
+	}
+}
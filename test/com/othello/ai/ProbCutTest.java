@@ -0,0 +1,66 @@
+package com.othello.ai;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that {@link ProbCut} never prunes with a line that isn't rising, however it got its parameters.
+ *
+ * @version 1.0.0
+ */
+class ProbCutTest
+{
+	@TempDir
+	Path directory;
+
+	@Test
+	void setIgnoresLinesThatAreNotRising()
+	{
+		ProbCut probCut = new ProbCut();
+		probCut.set(0, 5, 1.0, 0, 3);
+		probCut.set(0, 6, -1.0, 0, 3);
+		probCut.set(0, 7, 0, 0, 3);
+
+		assertTrue(probCut.has(5, 5));
+		assertFalse(probCut.has(5, 6));
+		assertFalse(probCut.has(5, 7));
+	}
+
+	@Test
+	void loadIgnoresLinesThatAreNotRising() throws IOException
+	{
+		Path path = directory.resolve("probcut.bin");
+
+		try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(path)))
+		{
+			out.writeInt(0x4D504331);
+			out.writeInt(ProbCut.PHASES);
+			out.writeInt(ProbCut.MAX_DEPTH);
+
+			for (int phase = 0; phase < ProbCut.PHASES; phase++)
+			{
+				for (int depth = 0; depth <= ProbCut.MAX_DEPTH; depth++)
+				{
+					out.writeFloat(depth == 6 ? -1 : depth == 7 ? 0 : depth == 8 ? Float.NaN : 1);
+					out.writeFloat(0);
+					out.writeFloat(3);
+				}
+			}
+		}
+
+		ProbCut probCut = ProbCut.load(path);
+
+		assertTrue(probCut.has(5, 5));
+		assertFalse(probCut.has(5, 6));
+		assertFalse(probCut.has(5, 7));
+		assertFalse(probCut.has(5, 8));
+	}
+}
@@ -0,0 +1,47 @@
+package com.othello.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the moves of {@link BitBoard} that work on sets of longs, against the known counts on the standard board and
+ * against the simple generator on other sizes.
+ *
+ * @version 1.0.0
+ */
+class PerftTest
+{
+	@Test
+	void standardBoardMatchesKnownCounts()
+	{
+		BitBoard bitBoard = BoardFactory.createStandardBoard().getBitBoard();
+		Team turn = BoardFactory.createStandardBoard().getTurn();
+
+		for (int depth = 1; depth <= 8; depth++)
+		{
+			assertEquals(Perft.COUNTS[depth], Perft.count(bitBoard, turn, depth), "depth " + depth);
+		}
+
+		assertEquals(Perft.COUNTS[6], Perft.verify(bitBoard, turn, 6));
+	}
+
+	@Test
+	void otherSizesMatchSimpleGenerator()
+	{
+		for (int[] size : new int[][] { { 4, 4 }, { 6, 6 }, { 7, 9 }, { 10, 10 }, { 9, 8 }, { 20, 3 }, { 12, 12 } })
+		{
+			Board board = BoardFactory.createBoard(size[0], size[1]);
+			BitBoard bitBoard = board.getBitBoard();
+			long hash = bitBoard.getHash();
+			String name = size[0] + "x" + size[1];
+
+			for (int depth = 1; depth <= 6; depth++)
+			{
+				assertEquals(Perft.verify(bitBoard, board.getTurn(), depth), Perft.count(bitBoard, board.getTurn(), depth), name + " depth " + depth);
+			}
+
+			assertEquals(hash, bitBoard.getHash(), name + " left as it was");
+		}
+	}
+}
@@ -0,0 +1,316 @@
+package com.othello.record;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.othello.game.BitBoard;
+import com.othello.game.Board;
+import com.othello.game.BoardFactory;
+import com.othello.game.Team;
+
+/**
+ * Writes games with {@link GameWriter} and reads them back with {@link GameReader} and {@link GameIndex}.
+ *
+ * @version 1.0.0
+ */
+class GameRecordTest
+{
+	@TempDir
+	Path directory;
+
+	@Test
+	void longEngineTextRoundTrips() throws IOException
+	{
+		Path games = directory.resolve("games.bin");
+		Board board = playGame(8, 8, 0, Integer.MAX_VALUE);
+		String[] engines = { "short", "x".repeat(100), "é".repeat(127) + "y", "y" };
+
+		try (GameWriter writer = new GameWriter(games))
+		{
+			for (String engine : engines)
+			{
+				writer.write(board, engine);
+			}
+		}
+
+		try (GameReader reader = new GameReader(games))
+		{
+			for (String engine : engines)
+			{
+				assertTrue(reader.next());
+				assertEquals(engine, reader.getEngine());
+				assertGame(board, reader);
+			}
+
+			assertFalse(reader.next());
+		}
+
+		Path index = directory.resolve("games.idx");
+		GameIndexBuilder.build(games, index);
+		assertEquals(engines.length, GameIndex.open(index).getGames());
+	}
+
+	@Test
+	void twoByteMovesRoundTrip() throws IOException
+	{
+		Path games = directory.resolve("games.bin");
+		Board board = playGame(20, 20, 0, Integer.MAX_VALUE);
+
+		assertEquals(2, GameReader.getMoveBytes(20, 20));
+
+		try (GameWriter writer = new GameWriter(games))
+		{
+			writer.write(board, "large");
+		}
+
+		try (GameReader reader = new GameReader(games))
+		{
+			assertTrue(reader.next());
+			assertEquals(20, reader.getWidth());
+			assertEquals(20, reader.getHeight());
+			assertGame(board, reader);
+
+			Board replayed = reader.createBoard();
+			assertEquals(board.getBlack(), replayed.getBlack());
+			assertEquals(board.getWhite(), replayed.getWhite());
+			assertFalse(reader.next());
+		}
+	}
+
+	@Test
+	void unfinishedAndDrawnGamesKeepTheirResult() throws IOException
+	{
+		Path games = directory.resolve("games.bin");
+		Board unfinished = playGame(8, 8, 1, 5);
+
+		try (GameWriter writer = new GameWriter(games))
+		{
+			writer.write(unfinished, "unfinished");
+			writer.write(8, 8, Team.BLACK, new int[0], 0, true, 0, "draw");
+		}
+
+		try (GameReader reader = new GameReader(games))
+		{
+			assertTrue(reader.next());
+			assertFalse(reader.isFinished());
+			assertNull(reader.getWinner());
+			assertGame(unfinished, reader);
+
+			assertTrue(reader.next());
+			assertTrue(reader.isFinished());
+			assertNull(reader.getWinner());
+			assertEquals(0, reader.getScore());
+			assertEquals(Team.BLACK, reader.getStartingTurn());
+		}
+	}
+
+	@Test
+	void scoresOfTheLargestBoardRoundTrip() throws IOException
+	{
+		Path games = directory.resolve("games.bin");
+
+		try (GameWriter writer = new GameWriter(games))
+		{
+			writer.write(255, 255, Team.WHITE, new int[0], 0, true, 255 * 255, "black");
+			writer.write(255, 255, Team.WHITE, new int[0], 0, true, -40000, "white");
+			assertThrows(IllegalArgumentException.class, () -> writer.write(256, 8, Team.WHITE, new int[0], 0, false, 0, ""));
+		}
+
+		try (GameReader reader = new GameReader(games))
+		{
+			assertTrue(reader.next());
+			assertEquals(255 * 255, reader.getScore());
+			assertEquals(Team.BLACK, reader.getWinner());
+
+			assertTrue(reader.next());
+			assertEquals(-40000, reader.getScore());
+			assertEquals(Team.WHITE, reader.getWinner());
+			assertFalse(reader.next());
+		}
+	}
+
+	@Test
+	void recordingWritesFinishedAndAbandonedGames() throws IOException
+	{
+		Path games = directory.resolve("games.bin");
+		Board finished = BoardFactory.createStandardBoard();
+		Board abandoned = BoardFactory.createStandardBoard();
+
+		try (GameWriter writer = new GameWriter(games))
+		{
+			GameWriter.Recording first = writer.record(finished, "finished");
+			GameWriter.Recording second = writer.record(abandoned, "abandoned");
+
+			play(finished, 0, Integer.MAX_VALUE);
+			play(abandoned, 0, 3);
+			assertEquals(1, writer.getGames());
+
+			first.close();
+			second.close();
+			assertEquals(2, writer.getGames());
+		}
+
+		try (GameReader reader = new GameReader(games))
+		{
+			assertTrue(reader.next());
+			assertEquals("finished", reader.getEngine());
+			assertTrue(reader.isFinished());
+			assertGame(finished, reader);
+
+			assertTrue(reader.next());
+			assertEquals("abandoned", reader.getEngine());
+			assertFalse(reader.isFinished());
+			assertGame(abandoned, reader);
+			assertFalse(reader.next());
+		}
+	}
+
+	@Test
+	void indexFindsGamesToSeekTo() throws IOException
+	{
+		Path games = directory.resolve("games.bin");
+		Board[] boards = { playGame(8, 8, 0, Integer.MAX_VALUE), playGame(8, 8, 1, Integer.MAX_VALUE), playGame(8, 8, 2, Integer.MAX_VALUE) };
+
+		try (GameWriter writer = new GameWriter(games))
+		{
+			for (Board board : boards)
+			{
+				writer.write(board, "indexed");
+			}
+		}
+
+		Path index = directory.resolve("games.idx");
+		GameIndexBuilder.build(games, index);
+		GameIndex gameIndex = GameIndex.open(index);
+
+		try (GameReader reader = new GameReader(games))
+		{
+			for (Board board : boards)
+			{
+				long[] found = gameIndex.find(board);
+
+				assertTrue(found.length > 0);
+				assertEquals(board.getMoveCount(), GameIndex.getPly(found[found.length - 1]));
+
+				reader.seek(GameIndex.getOffset(found[found.length - 1]));
+				assertTrue(reader.next());
+				assertGame(board, reader);
+			}
+
+			Board last = boards[2];
+			long[] placed = gameIndex.findPlaced(8, 8, last.getMove(0), last.getStartingTurn(), 1);
+			assertTrue(placed.length > 0);
+
+			for (long posting : placed)
+			{
+				assertEquals(0, GameIndex.getPly(posting));
+
+				reader.seek(GameIndex.getOffset(posting));
+				assertTrue(reader.next());
+				assertEquals(last.getMove(0), reader.getMove(0));
+			}
+		}
+	}
+
+	@Test
+	void truncatedGameIsAnError() throws IOException
+	{
+		Path games = directory.resolve("games.bin");
+
+		try (GameWriter writer = new GameWriter(games))
+		{
+			writer.write(playGame(8, 8, 0, Integer.MAX_VALUE), "whole");
+			writer.write(playGame(8, 8, 0, Integer.MAX_VALUE), "cut");
+		}
+
+		try (FileChannel channel = FileChannel.open(games, StandardOpenOption.WRITE))
+		{
+			channel.truncate(channel.size() - 3);
+		}
+
+		try (GameReader reader = new GameReader(games))
+		{
+			assertTrue(reader.next());
+			assertEquals("whole", reader.getEngine());
+			assertThrows(IOException.class, reader::next);
+		}
+
+		try (FileChannel channel = FileChannel.open(games, StandardOpenOption.WRITE))
+		{
+			channel.truncate(GameReader.HEADER_BYTES + 5);
+		}
+
+		try (GameReader reader = new GameReader(games))
+		{
+			assertThrows(IOException.class, reader::next);
+		}
+	}
+
+	private static void assertGame(Board board, GameReader reader)
+	{
+		int[] moves = new int[board.getMoveCount()];
+		int[] read = new int[reader.getMoveCount()];
+
+		for (int i = 0; i < moves.length; i++) moves[i] = board.getMove(i);
+		for (int i = 0; i < read.length; i++) read[i] = reader.getMove(i);
+
+		assertArrayEquals(moves, read);
+		assertEquals(board.getStartingTurn(), reader.getStartingTurn());
+		assertEquals(board.getBlack() - board.getWhite(), reader.getScore());
+		assertEquals(board.getWinner() != null, reader.isFinished());
+	}
+
+	/**
+	 * Plays a game without the AI, see {@link #play(Board, int, int)}.
+	 */
+	private static Board playGame(int width, int height, int choice, int moves)
+	{
+		Board board = BoardFactory.createBoard(width, height);
+		play(board, choice, moves);
+
+		return board;
+	}
+
+	/**
+	 * Makes moves until the game ends or enough moves are made.
+	 *
+	 * @param choice Which of the valid moves to take each turn, counting from the first and wrapping around.
+	 */
+	private static void play(Board board, int choice, int moves)
+	{
+		board.setComputer(Team.BLACK, false);
+		board.setComputer(Team.WHITE, false);
+
+		for (int i = 0; i < moves && board.getWinner() == null; i++)
+		{
+			long[] mobility = board.getMobility();
+			int count = 0;
+
+			for (int square = BitBoard.next(mobility, 0); square != -1; square = BitBoard.next(mobility, square + 1))
+			{
+				count++;
+			}
+
+			int square = BitBoard.next(mobility, 0);
+
+			for (int skip = choice % count; skip > 0; skip--)
+			{
+				square = BitBoard.next(mobility, square + 1);
+			}
+
+			board.move(board.getBitBoard().toPoint(square));
+		}
+	}
+}